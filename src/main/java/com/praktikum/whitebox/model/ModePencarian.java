@@ -0,0 +1,19 @@
+package com.praktikum.whitebox.model;
+
+// Cara mencocokkan teks pencarian dengan nama produk (keduanya sudah huruf kecil)
+public enum ModePencarian {
+    AWALAN {
+        @Override
+        public boolean cocok(String namaKecil, String teksKecil) {
+            return namaKecil.startsWith(teksKecil);
+        }
+    },
+    MENGANDUNG {
+        @Override
+        public boolean cocok(String namaKecil, String teksKecil) {
+            return namaKecil.contains(teksKecil);
+        }
+    };
+
+    public abstract boolean cocok(String namaKecil, String teksKecil);
+}
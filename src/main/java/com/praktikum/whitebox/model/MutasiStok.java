@@ -0,0 +1,42 @@
+package com.praktikum.whitebox.model;
+
+// Satu baris mutasi stok (barang masuk / keluar) untuk diproses secara batch
+public class MutasiStok {
+    public enum Jenis { MASUK, KELUAR }
+
+    private final String kode;
+    private final Jenis jenis;
+    private final int jumlah;
+
+    public MutasiStok(String kode, Jenis jenis, int jumlah) {
+        this.kode = kode;
+        this.jenis = jenis;
+        this.jumlah = jumlah;
+    }
+
+    public static MutasiStok masuk(String kode, int jumlah) {
+        return new MutasiStok(kode, Jenis.MASUK, jumlah);
+    }
+
+    public static MutasiStok keluar(String kode, int jumlah) {
+        return new MutasiStok(kode, Jenis.KELUAR, jumlah);
+    }
+
+    public String getKode() { return kode; }
+    public Jenis getJenis() { return jenis; }
+    public int getJumlah() { return jumlah; }
+
+    // Perubahan stok bertanda: positif untuk masuk, negatif untuk keluar
+    public int getDelta() {
+        return jenis == Jenis.MASUK ? jumlah : -jumlah;
+    }
+
+    @Override
+    public String toString() {
+        return "MutasiStok{" +
+                "kode='" + kode + '\'' +
+                ", jenis=" + jenis +
+                ", jumlah=" + jumlah +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.praktikum.whitebox.model;
+
+/**
+ * Satu perubahan katalog atau stok yang sudah diterapkan ke repository, untuk sistem hilir
+ * (pencarian, analitik, replika). Sekuens naik satu per peristiwa dan tidak pernah dipakai
+ * ulang, jadi pelanggan bisa melanjutkan dari sekuens terakhir yang sudah diproses.
+ * Arti {@code jumlah} bergantung pada jenisnya; {@code produk} hanya diisi untuk DISIMPAN
+ * dan berisi salinan, bukan objek yang tersimpan di repository.
+ */
+public class PeristiwaProduk {
+    public enum Jenis {
+        DISIMPAN,
+        DIHAPUS,
+        // jumlah = stok baru
+        STOK_DIUBAH,
+        // jumlah = barang masuk / keluar
+        STOK_MASUK,
+        STOK_KELUAR,
+        // jumlah = stok minimum baru
+        STOK_MINIMUM_DIUBAH,
+        DIAKTIFKAN,
+        DINONAKTIFKAN
+    }
+
+    private final long sekuens;
+    private final Jenis jenis;
+    private final String kode;
+    private final int jumlah;
+    private final Produk produk;
+    private final long waktu;
+
+    public PeristiwaProduk(long sekuens, Jenis jenis, String kode, int jumlah, Produk produk, long waktu) {
+        this.sekuens = sekuens;
+        this.jenis = jenis;
+        this.kode = kode;
+        this.jumlah = jumlah;
+        this.produk = produk;
+        this.waktu = waktu;
+    }
+
+    public long getSekuens() { return sekuens; }
+    public Jenis getJenis() { return jenis; }
+    public String getKode() { return kode; }
+    public int getJumlah() { return jumlah; }
+    public Produk getProduk() { return produk; }
+    // Epoch milidetik saat peristiwa diterbitkan
+    public long getWaktu() { return waktu; }
+
+    @Override
+    public String toString() {
+        return "PeristiwaProduk{" +
+                "sekuens=" + sekuens +
+                ", jenis=" + jenis +
+                ", kode='" + kode + '\'' +
+                ", jumlah=" + jumlah +
+                '}';
+    }
+}
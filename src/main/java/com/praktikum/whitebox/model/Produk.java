@@ -47,6 +47,12 @@ public class Produk {
     public boolean isStokAman() {
         return stok > stokMinimum;
     }
+    public StatusStok getStatusStok() {
+        if (stok <= 0) {
+            return StatusStok.HABIS;
+        }
+        return isStokMenipis() ? StatusStok.MENIPIS : StatusStok.AMAN;
+    }
     public void kurangiStok(int jumlah) {
         if (jumlah <= 0) {
             throw new IllegalArgumentException("Jumlah harus positif");
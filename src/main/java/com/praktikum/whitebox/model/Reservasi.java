@@ -0,0 +1,36 @@
+package com.praktikum.whitebox.model;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stok yang ditahan untuk satu pesanan sampai dikonfirmasi, dibatalkan, atau kedaluwarsa
+public class Reservasi {
+    private final String id;
+    private final Map<String, Integer> item;
+    private final Instant kedaluwarsa;
+
+    public Reservasi(String id, Map<String, Integer> item, Instant kedaluwarsa) {
+        this.id = id;
+        this.item = Collections.unmodifiableMap(new LinkedHashMap<>(item));
+        this.kedaluwarsa = kedaluwarsa;
+    }
+
+    public String getId() { return id; }
+    public Map<String, Integer> getItem() { return item; }
+    public Instant getKedaluwarsa() { return kedaluwarsa; }
+
+    public boolean isKedaluwarsa(Instant sekarang) {
+        return !sekarang.isBefore(kedaluwarsa);
+    }
+
+    @Override
+    public String toString() {
+        return "Reservasi{" +
+                "id='" + id + '\'' +
+                ", item=" + item +
+                ", kedaluwarsa=" + kedaluwarsa +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package com.praktikum.whitebox.model;
+
+// Status stok produk terhadap stok minimum
+public enum StatusStok {
+    HABIS,
+    MENIPIS,
+    AMAN
+}
@@ -0,0 +1,28 @@
+package com.praktikum.whitebox.model;
+
+// Tipe pelanggan beserta tambahan diskon bawaannya; tipe yang tidak dikenal dianggap UMUM
+public enum TipePelanggan {
+    PREMIUM(0.10),
+    REGULER(0.05),
+    UMUM(0.02);
+
+    private final double bonusDiskon;
+
+    TipePelanggan(double bonusDiskon) {
+        this.bonusDiskon = bonusDiskon;
+    }
+
+    public double getBonusDiskon() {
+        return bonusDiskon;
+    }
+
+    // Konversi dari teks (tidak peka huruf besar/kecil), dipanggil sekali di luar loop harga
+    public static TipePelanggan dari(String tipePelanggan) {
+        if (PREMIUM.name().equalsIgnoreCase(tipePelanggan)) {
+            return PREMIUM;
+        } else if (REGULER.name().equalsIgnoreCase(tipePelanggan)) {
+            return REGULER;
+        }
+        return UMUM;
+    }
+}
@@ -0,0 +1,207 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.PeristiwaProduk;
+import com.praktikum.whitebox.model.Produk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer tanpa lock untuk {@link PeristiwaProduk}, dengan banyak penerbit dan banyak
+ * pelanggan.
+ * <p>
+ * Penerbit mengklaim sekuens dengan satu getAndIncrement, lalu menaruh peristiwa di slot
+ * {@code sekuens & (kapasitas - 1)}. Setiap pelanggan punya thread dan kursor sendiri. Thread
+ * itu mengambil semua peristiwa berurutan yang sudah terbit (maksimal satu batch), lalu
+ * menyerahkannya ke penangan dalam satu panggilan, jadi biaya sinkronisasi dibagi ke seluruh
+ * batch. Slot yang belum terbit menghentikan batch, sehingga urutan sekuens selalu terjaga
+ * walaupun penerbit selesai tidak berurutan.
+ * <p>
+ * Peristiwa tidak pernah hilang untuk pelanggan yang aktif: kalau ring penuh, penerbit menunggu
+ * pelanggan paling lambat. Dengan kapasitas yang cukup dan penangan yang memproses per batch,
+ * hal ini hanya terjadi kalau pelanggan memang tidak bisa mengimbangi. Pelanggan yang
+ * penangannya melempar exception dihentikan dan dilepas dari ring, supaya tidak menahan penerbit.
+ * Pelanggan baru mulai dari peristiwa yang terbit setelah ia berlangganan.
+ */
+public class AliranPeristiwa implements AutoCloseable {
+    public static final int UKURAN_BATCH_DEFAULT = 1024;
+    private static final int PUTARAN_SPIN = 200;
+    private static final long JEDA_TUNGGU_NANOS = 50_000;
+
+    private final int mask;
+    private final AtomicReferenceArray<PeristiwaProduk> slot;
+    // Sekuens terakhir yang sudah diklaim penerbit; sekuens pertama adalah 1
+    private final AtomicLong klaim = new AtomicLong();
+    private final List<Langganan> daftarLangganan = new CopyOnWriteArrayList<>();
+    // Kursor minimum pelanggan yang terakhir dihitung, supaya penerbit jarang memindai semua kursor
+    private volatile long cacheMinimum;
+
+    public AliranPeristiwa(int kapasitas) {
+        if (kapasitas <= 0 || Integer.bitCount(kapasitas) != 1) {
+            throw new IllegalArgumentException("Kapasitas harus pangkat dua");
+        }
+        this.mask = kapasitas - 1;
+        this.slot = new AtomicReferenceArray<>(kapasitas);
+    }
+
+    // Terbitkan peristiwa dan kembalikan sekuensnya; menunggu hanya kalau ring penuh
+    public long terbitkan(PeristiwaProduk.Jenis jenis, String kode, int jumlah, Produk produk) {
+        long sekuens = klaim.incrementAndGet();
+        long titikBungkus = sekuens - slot.length();
+        if (titikBungkus > cacheMinimum) {
+            long minimum;
+            while (titikBungkus > (minimum = kursorMinimum(sekuens - 1))) {
+                LockSupport.parkNanos(1);
+            }
+            cacheMinimum = minimum;
+        }
+        slot.setRelease((int) sekuens & mask,
+                new PeristiwaProduk(sekuens, jenis, kode, jumlah, produk, System.currentTimeMillis()));
+        return sekuens;
+    }
+
+    public Langganan berlangganan(Consumer<List<PeristiwaProduk>> penangan) {
+        return berlangganan(penangan, UKURAN_BATCH_DEFAULT);
+    }
+
+    // Penangan dipanggil di thread pelanggan dengan batch berurutan berisi 1..ukuranBatch peristiwa
+    public Langganan berlangganan(Consumer<List<PeristiwaProduk>> penangan, int ukuranBatch) {
+        if (ukuranBatch <= 0) {
+            throw new IllegalArgumentException("Ukuran batch harus positif");
+        }
+        Langganan langganan = new Langganan(penangan, ukuranBatch);
+        // Kursor diset sebelum dan sesudah didaftarkan: penerbit yang belum melihat langganan ini
+        // hanya menulis sekuens di bawah kursor kedua, yang memang tidak akan dibaca
+        langganan.kursor.set(klaim.get());
+        daftarLangganan.add(langganan);
+        langganan.kursor.set(klaim.get());
+        langganan.thread.start();
+        return langganan;
+    }
+
+    // Sekuens terakhir yang sudah diklaim penerbit
+    public long getSekuensTerakhir() {
+        return klaim.get();
+    }
+
+    public int getKapasitas() {
+        return slot.length();
+    }
+
+    // Hentikan semua pelanggan setelah peristiwa yang sudah terbit diserahkan
+    @Override
+    public void close() {
+        for (Langganan langganan : daftarLangganan) {
+            langganan.close();
+        }
+    }
+
+    private long kursorMinimum(long bawaan) {
+        long minimum = bawaan;
+        for (Langganan langganan : daftarLangganan) {
+            minimum = Math.min(minimum, langganan.kursor.get());
+        }
+        return minimum;
+    }
+
+    public class Langganan implements AutoCloseable {
+        private final Consumer<List<PeristiwaProduk>> penangan;
+        private final int ukuranBatch;
+        // Sekuens terakhir yang sudah diserahkan ke penangan
+        private final AtomicLong kursor = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean berhenti;
+        private volatile Throwable kesalahan;
+
+        private Langganan(Consumer<List<PeristiwaProduk>> penangan, int ukuranBatch) {
+            this.penangan = penangan;
+            this.ukuranBatch = ukuranBatch;
+            this.thread = new Thread(this::jalankan, "aliran-peristiwa");
+            this.thread.setDaemon(true);
+        }
+
+        public long getSekuensTerakhir() {
+            return kursor.get();
+        }
+
+        public boolean isAktif() {
+            return thread.isAlive() && !berhenti;
+        }
+
+        // Exception atau Error dari penangan yang menghentikan langganan ini, atau null
+        public Throwable getKesalahan() {
+            return kesalahan;
+        }
+
+        // Berhenti setelah peristiwa yang sudah terbit diserahkan, lalu tunggu threadnya selesai
+        @Override
+        public void close() {
+            berhenti = true;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            daftarLangganan.remove(this);
+        }
+
+        private void jalankan() {
+            long berikut = kursor.get() + 1;
+            int menganggur = 0;
+            try {
+                while (true) {
+                    List<PeristiwaProduk> batch = ambilBatch(berikut);
+                    if (batch.isEmpty()) {
+                        if (berhenti) {
+                            return;
+                        }
+                        menganggur = tunggu(menganggur);
+                        continue;
+                    }
+                    menganggur = 0;
+                    penangan.accept(Collections.unmodifiableList(batch));
+                    berikut += batch.size();
+                    kursor.set(berikut - 1);
+                }
+            } catch (Throwable e) {
+                kesalahan = e;
+            } finally {
+                // Selalu dilepas, termasuk karena Error, supaya penerbit tidak menunggu kursor ini
+                berhenti = true;
+                daftarLangganan.remove(this);
+            }
+        }
+
+        private List<PeristiwaProduk> ambilBatch(long berikut) {
+            List<PeristiwaProduk> batch = new ArrayList<>();
+            while (batch.size() < ukuranBatch) {
+                PeristiwaProduk peristiwa = slot.getAcquire((int) berikut & mask);
+                if (peristiwa == null || peristiwa.getSekuens() != berikut) {
+                    break;
+                }
+                batch.add(peristiwa);
+                berikut++;
+            }
+            return batch;
+        }
+
+        // Spin sebentar supaya latensi rendah saat sibuk, lalu park supaya tidak membakar CPU
+        private int tunggu(int menganggur) {
+            if (menganggur < PUTARAN_SPIN) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(JEDA_TUNGGU_NANOS);
+            }
+            return menganggur + 1;
+        }
+    }
+}
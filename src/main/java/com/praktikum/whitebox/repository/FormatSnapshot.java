@@ -0,0 +1,49 @@
+package com.praktikum.whitebox.repository;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Format snapshot biner katalog, dipakai bersama oleh {@link PenulisSnapshot} dan
+ * {@link PembacaSnapshot}. Semua angka big-endian.
+ * <pre>
+ * header    magic int "WBSN", versi byte
+ * KATEGORI  tag 1, idKategori teks, namaKategori teks, deskripsi teks
+ * PRODUK    tag 2, kode teks, nama teks, kategori varint (id kamus + 1, 0 = null),
+ *           harga double, stok varint zigzag, stokMinimum varint zigzag, aktif byte
+ * AKHIR     tag 0, jumlah produk varint
+ * teks      varint (panjang byte + 1, 0 = null), UTF-8
+ * </pre>
+ * Id kamus kategori adalah urutan rekaman KATEGORI di file (0, 1, 2, ...); rekaman kategori
+ * selalu ditulis sebelum produk pertama yang memakainya.
+ */
+final class FormatSnapshot {
+    static final int MAGIC = 0x5742534E; // "WBSN"
+    static final byte VERSI = 1;
+    static final int UKURAN_HEADER = 5;
+
+    static final byte TAG_AKHIR = 0;
+    static final byte TAG_KATEGORI = 1;
+    static final byte TAG_PRODUK = 2;
+
+    static final int MAKS_VARINT = 5;
+    static final int UKURAN_BUFFER = 1 << 16;
+
+    private FormatSnapshot() {}
+
+    static void tulisVarint(ByteBuffer buffer, int nilai) {
+        while ((nilai & ~0x7F) != 0) {
+            buffer.put((byte) ((nilai & 0x7F) | 0x80));
+            nilai >>>= 7;
+        }
+        buffer.put((byte) nilai);
+    }
+
+    // Zigzag: angka negatif kecil tetap pendek (-1 -> 1, 1 -> 2)
+    static int zigzag(int nilai) {
+        return (nilai << 1) ^ (nilai >> 31);
+    }
+
+    static int unzigzag(int nilai) {
+        return (nilai >>> 1) ^ -(nilai & 1);
+    }
+}
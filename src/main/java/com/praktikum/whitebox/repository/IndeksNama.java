@@ -0,0 +1,170 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+
+/**
+ * Indeks nama produk untuk pencarian awalan dan substring, tidak peka huruf besar/kecil.
+ * <p>
+ * Awalan dicari di set terurut berisi entri "nama huruf kecil + \0 + kode". Substring minimal
+ * 3 karakter dicari lewat indeks trigram: kandidat diambil dari set trigram terkecil lalu dicek
+ * ulang dengan contains. Substring yang lebih pendek memindai nama secara terurut dan berhenti
+ * setelah halaman penuh. Hasil selalu terurut berdasarkan nama lalu kode, jadi offset/batas
+ * memberi halaman yang stabil.
+ * <p>
+ * Tidak ada lock global: semua struktur adalah koleksi concurrent, dan perubahan untuk satu kode
+ * diurutkan lewat compute pada entri kode itu, jadi penyimpanan kode berbeda tidak saling
+ * menunggu. Pencarian bersifat weakly consistent terhadap perubahan yang sedang berjalan.
+ */
+public class IndeksNama {
+    private static final int N = 3;
+    private static final char PEMISAH = '\0';
+
+    private final NavigableSet<String> entriNama = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, Set<String>> kodeByTrigram = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> namaByKode = new ConcurrentHashMap<>();
+
+    public void tambah(String kode, String nama) {
+        if (kode == null || nama == null) {
+            return;
+        }
+        perbarui(kode, () -> nama);
+    }
+
+    public void hapus(String kode) {
+        if (kode == null) {
+            return;
+        }
+        perbarui(kode, () -> null);
+    }
+
+    // Samakan indeks kode ini dengan nama yang dibaca dari namaTerkini (null = hapus). Nama dibaca
+    // di dalam compute per kode, jadi pemanggil yang datang belakangan selalu memasang nama terbaru
+    // walaupun urutan pemanggilannya tertukar dengan penyimpanan produknya
+    public void perbarui(String kode, Supplier<String> namaTerkini) {
+        namaByKode.compute(kode, (k, kunciLama) -> {
+            String nama = namaTerkini.get();
+            String kunciBaru = nama != null ? kunci(nama) : null;
+            if (kunciBaru != null && kunciBaru.equals(kunciLama)) {
+                return kunciLama;
+            }
+            if (kunciLama != null) {
+                entriNama.remove(entri(kunciLama, k));
+                for (String trigram : trigram(kunciLama)) {
+                    // Hapus set trigram yang sudah kosong supaya map tidak terus membesar
+                    kodeByTrigram.computeIfPresent(trigram, (t, kodeSet) -> {
+                        kodeSet.remove(k);
+                        return kodeSet.isEmpty() ? null : kodeSet;
+                    });
+                }
+            }
+            if (kunciBaru != null) {
+                entriNama.add(entri(kunciBaru, k));
+                for (String trigram : trigram(kunciBaru)) {
+                    kodeByTrigram.compute(trigram, (t, kodeSet) -> {
+                        Set<String> hasil = kodeSet != null ? kodeSet : ConcurrentHashMap.newKeySet();
+                        hasil.add(k);
+                        return hasil;
+                    });
+                }
+            }
+            return kunciBaru;
+        });
+    }
+
+    // Kode produk yang cocok, terurut nama lalu kode, mulai dari offset sebanyak paling banyak batas
+    public List<String> cari(String teks, ModePencarian mode, int offset, int batas) {
+        if (teks == null || teks.isEmpty() || mode == null || offset < 0 || batas <= 0) {
+            return Collections.emptyList();
+        }
+        String kunci = kunci(teks);
+        if (mode == ModePencarian.AWALAN) {
+            return ambilHalaman(entriNama.subSet(kunci, true, kunci + Character.MAX_VALUE, false),
+                    mode, kunci, offset, batas);
+        }
+        if (kunci.length() < N) {
+            return ambilHalaman(entriNama, mode, kunci, offset, batas);
+        }
+        return cariTrigram(kunci, offset, batas);
+    }
+
+    public int jumlah() {
+        return namaByKode.size();
+    }
+
+    private static List<String> ambilHalaman(Set<String> rentang, ModePencarian mode,
+                                             String kunci, int offset, int batas) {
+        List<String> hasil = new ArrayList<>();
+        int dilewati = 0;
+        for (String entri : rentang) {
+            int pemisah = entri.lastIndexOf(PEMISAH);
+            if (!mode.cocok(entri.substring(0, pemisah), kunci)) {
+                continue;
+            }
+            if (dilewati < offset) {
+                dilewati++;
+            } else if (hasil.size() < batas) {
+                hasil.add(entri.substring(pemisah + 1));
+            } else {
+                break;
+            }
+        }
+        return hasil;
+    }
+
+    private List<String> cariTrigram(String kunci, int offset, int batas) {
+        Set<String> terkecil = null;
+        for (String trigram : trigram(kunci)) {
+            Set<String> kodeSet = kodeByTrigram.get(trigram);
+            if (kodeSet == null) {
+                return Collections.emptyList();
+            }
+            if (terkecil == null || kodeSet.size() < terkecil.size()) {
+                terkecil = kodeSet;
+            }
+        }
+        // Nama diambil sekali per kandidat, jadi pengurutan tidak terganggu perubahan yang sedang berjalan
+        List<String> cocok = new ArrayList<>();
+        for (String kode : terkecil) {
+            String nama = namaByKode.get(kode);
+            if (nama != null && nama.contains(kunci)) {
+                cocok.add(entri(nama, kode));
+            }
+        }
+        if (offset >= cocok.size()) {
+            return Collections.emptyList();
+        }
+        Collections.sort(cocok);
+        List<String> hasil = new ArrayList<>(Math.min(batas, cocok.size() - offset));
+        for (String entri : cocok.subList(offset, Math.min(cocok.size(), offset + batas))) {
+            hasil.add(entri.substring(entri.lastIndexOf(PEMISAH) + 1));
+        }
+        return hasil;
+    }
+
+    private static String entri(String kunci, String kode) {
+        return kunci + PEMISAH + kode;
+    }
+
+    private static Set<String> trigram(String teks) {
+        Set<String> hasil = new HashSet<>();
+        for (int i = 0; i + N <= teks.length(); i++) {
+            hasil.add(teks.substring(i, i + N));
+        }
+        return hasil;
+    }
+
+    private static String kunci(String teks) {
+        return teks.toLowerCase(Locale.ROOT);
+    }
+}
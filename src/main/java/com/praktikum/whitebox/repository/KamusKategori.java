@@ -0,0 +1,83 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kamus kategori: setiap nama kategori dipetakan ke id int kecil yang berurutan (0, 1, 2, ...).
+ * Entri kamus adalah {@link Kategori}; kolom yang menyimpan id cukup memegang int, dan nama
+ * dibaca dari satu entri ini. Objek {@link com.praktikum.whitebox.model.Produk} tidak diubah,
+ * jadi tetap memegang String kategorinya sendiri. Id tidak pernah dipakai ulang, jadi aman
+ * disimpan di array atau bitmap.
+ * <p>
+ * Kategori yang dibuat otomatis mendapat idKategori "K001", "K002", ... menurut urutan id, yang
+ * bisa sama dengan idKategori kategori yang didaftarkan lewat {@link #daftarkan}. Karena equals
+ * {@link Kategori} memakai idKategori, pakai nama kategori (unik di kamus) sebagai kunci map.
+ */
+public class KamusKategori {
+    public static final int TIDAK_ADA = -1;
+
+    private final ConcurrentHashMap<String, Integer> idByNama = new ConcurrentHashMap<>();
+    // Diganti utuh saat entri baru ditambahkan, jadi pembaca tidak perlu lock
+    private volatile Kategori[] entri = new Kategori[0];
+
+    // Id untuk nama kategori; entri baru dibuat kalau belum terdaftar
+    public int idUntuk(String namaKategori) {
+        if (namaKategori == null) {
+            return TIDAK_ADA;
+        }
+        Integer id = idByNama.get(namaKategori);
+        if (id != null) {
+            return id;
+        }
+        return tambah(namaKategori, null);
+    }
+
+    // Daftarkan kategori yang sudah ada (id dan deskripsinya dipertahankan)
+    public int daftarkan(Kategori kategori) {
+        if (kategori == null || kategori.getNamaKategori() == null) {
+            return TIDAK_ADA;
+        }
+        return tambah(kategori.getNamaKategori(), kategori);
+    }
+
+    public int cariId(String namaKategori) {
+        if (namaKategori == null) {
+            return TIDAK_ADA;
+        }
+        Integer id = idByNama.get(namaKategori);
+        return id == null ? TIDAK_ADA : id;
+    }
+
+    public Kategori getKategori(int id) {
+        Kategori[] saatIni = entri;
+        return id >= 0 && id < saatIni.length ? saatIni[id] : null;
+    }
+
+    public String getNama(int id) {
+        Kategori kategori = getKategori(id);
+        return kategori == null ? null : kategori.getNamaKategori();
+    }
+
+    public int jumlah() {
+        return entri.length;
+    }
+
+    private synchronized int tambah(String namaKategori, Kategori kategori) {
+        Integer ada = idByNama.get(namaKategori);
+        if (ada != null) {
+            return ada;
+        }
+        int id = entri.length;
+        if (kategori == null) {
+            kategori = new Kategori(String.format("K%03d", id + 1), namaKategori, null);
+        }
+        Kategori[] baru = Arrays.copyOf(entri, id + 1);
+        baru[id] = kategori;
+        entri = baru;
+        idByNama.put(kategori.getNamaKategori(), id);
+        return id;
+    }
+}
@@ -0,0 +1,334 @@
+package com.praktikum.whitebox.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log untuk mutasi stok dengan group commit.
+ * <p>
+ * Pemanggil memasukkan entri ke antrean lalu menunggu future-nya. Satu thread penulis
+ * mengambil semua entri yang sedang menunggu, menulisnya dalam satu kali write, lalu
+ * memanggil satu fsync untuk seluruh kelompok, sehingga banyak mutasi berbagi satu fsync.
+ * <p>
+ * Format entri: [panjang payload int][crc32 int][payload], payload =
+ * [urutan long][jenis byte][panjang kode byte][kode UTF-8][nilai int].
+ * Entri terakhir yang terpotong atau rusak (crash di tengah penulisan) diabaikan saat replay.
+ * <p>
+ * Kalau write atau fsync gagal, ekor file bisa berisi entri setengah jadi yang menghentikan
+ * replay. Log lalu berhenti menerima entri (fail closed): kelompok yang gagal dan semua catat
+ * berikutnya selesai dengan error, jadi tidak ada mutasi yang dikonfirmasi di belakang ekor
+ * rusak. Buka ulang log untuk memangkas ekornya dan melanjutkan.
+ * <p>
+ * Entri SET berisi stok akhir, jadi aman diputar ulang berkali-kali di atas repository dasar
+ * yang sudah memuat sebagian mutasinya. Entri TAMBAH/KURANGI berupa delta dan hanya benar kalau
+ * log dimulai tepat dari keadaan repository dasar; {@link RepositoryProdukWal} hanya menulis SET.
+ */
+public class LogStok implements Closeable {
+    public enum Jenis { SET, TAMBAH, KURANGI }
+
+    private static final int MAKS_ENTRI_PER_KELOMPOK = 4096;
+    private static final int UKURAN_HEADER_ENTRI = 8;
+
+    private final FileChannel channel;
+    private final BlockingQueue<Entri> antrean = new LinkedBlockingQueue<>();
+    private final Thread penulis;
+    private volatile boolean berjalan = true;
+    // Error write/fsync pertama; setelah itu semua entri ditolak
+    private volatile Throwable kesalahan;
+    private long urutanBerikutnya;
+
+    public LogStok(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    // Untuk test yang perlu channel yang bisa gagal di tengah penulisan
+    LogStok(FileChannel channel) throws IOException {
+        this.channel = channel;
+        pulihkanEkor();
+        this.penulis = new Thread(this::jalankanPenulis, "log-stok-penulis");
+        this.penulis.setDaemon(true);
+        this.penulis.start();
+    }
+
+    // Future selesai setelah entri ini (dan kelompoknya) sudah di-fsync ke disk
+    public CompletableFuture<Void> catat(Jenis jenis, String kode, int nilai) {
+        Objects.requireNonNull(jenis, "jenis");
+        Objects.requireNonNull(kode, "kode");
+        if (kode.getBytes(StandardCharsets.UTF_8).length > 255) {
+            throw new IllegalArgumentException("Kode terlalu panjang untuk log stok");
+        }
+        IllegalStateException ditolak = alasanDitolak();
+        if (ditolak != null) {
+            return CompletableFuture.failedFuture(ditolak);
+        }
+        return antrekan(new Entri(jenis, kode, nilai, false));
+    }
+
+    // Kosongkan log. Hanya boleh dipanggil setelah repository dasar menyimpan semua mutasi yang
+    // sudah tercatat; RepositoryProdukWal.checkpoint mengatur urutan itu.
+    // Diproses berurutan di thread penulis, jadi entri sebelum checkpoint tetap ditulis dulu.
+    public CompletableFuture<Void> checkpoint() {
+        IllegalStateException ditolak = alasanDitolak();
+        if (ditolak != null) {
+            return CompletableFuture.failedFuture(ditolak);
+        }
+        return antrekan(new Entri(null, null, 0, true));
+    }
+
+    private IllegalStateException alasanDitolak() {
+        if (kesalahan != null) {
+            return new IllegalStateException("Log stok berhenti setelah gagal menulis", kesalahan);
+        }
+        if (!berjalan) {
+            return new IllegalStateException("Log stok sudah ditutup");
+        }
+        return null;
+    }
+
+    private CompletableFuture<Void> antrekan(Entri entri) {
+        antrean.add(entri);
+        // close() bisa berjalan di antara cek berjalan dan add; kalau entri masih di antrean
+        // setelah log ditutup, tidak ada lagi yang akan memprosesnya
+        if (!berjalan && antrean.remove(entri)) {
+            entri.selesai.completeExceptionally(new IllegalStateException("Log stok sudah ditutup"));
+        }
+        return entri.selesai;
+    }
+
+    // Terapkan ulang semua entri yang utuh ke repository, kembalikan jumlah entri yang dibaca.
+    // Nomor urut hanya dipakai untuk melanjutkan penomoran; entri SET idempoten jadi tidak perlu dilewati
+    public static int putarUlang(Path file, RepositoryProduk repository) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int jumlah = 0;
+        try (FileChannel baca = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(UKURAN_HEADER_ENTRI);
+            while (true) {
+                ByteBuffer payload = bacaEntri(baca, header);
+                if (payload == null) {
+                    break;
+                }
+                payload.getLong();
+                Jenis jenis = Jenis.values()[payload.get()];
+                byte[] kode = new byte[payload.get() & 0xFF];
+                payload.get(kode);
+                int nilai = payload.getInt();
+                terapkan(repository, jenis, new String(kode, StandardCharsets.UTF_8), nilai);
+                jumlah++;
+            }
+        }
+        return jumlah;
+    }
+
+    static void terapkan(RepositoryProduk repository, Jenis jenis, String kode, int nilai) {
+        switch (jenis) {
+            case SET:
+                repository.updateStok(kode, nilai);
+                break;
+            case TAMBAH:
+                repository.tambahStok(kode, nilai);
+                break;
+            case KURANGI:
+                repository.kurangiStokJikaCukup(kode, nilai);
+                break;
+            default:
+                throw new IllegalStateException("Jenis entri tidak dikenal: " + jenis);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        berjalan = false;
+        try {
+            penulis.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Entri yang masuk bersamaan dengan penutupan tidak akan ditulis lagi
+        gagalkanAntrean();
+        channel.close();
+    }
+
+    private void gagalkanAntrean() {
+        Entri sisa;
+        while ((sisa = antrean.poll()) != null) {
+            sisa.selesai.completeExceptionally(new IllegalStateException("Log stok sudah ditutup"));
+        }
+    }
+
+    private void jalankanPenulis() {
+        List<Entri> kelompok = new ArrayList<>();
+        while (berjalan || !antrean.isEmpty()) {
+            try {
+                Entri pertama = antrean.poll(10, TimeUnit.MILLISECONDS);
+                if (pertama == null) {
+                    continue;
+                }
+                kelompok.add(pertama);
+                antrean.drainTo(kelompok, MAKS_ENTRI_PER_KELOMPOK - 1);
+                tulisKelompok(kelompok);
+            } catch (InterruptedException e) {
+                // Penulis berhenti: tolak entri baru dan gagalkan yang masih menunggu
+                berjalan = false;
+                gagalkanAntrean();
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                kelompok.clear();
+            }
+        }
+    }
+
+    private void tulisKelompok(List<Entri> kelompok) {
+        // Entri yang sempat masuk antrean sebelum error terjadi
+        IllegalStateException ditolak = kesalahan != null ? alasanDitolak() : null;
+        if (ditolak != null) {
+            for (Entri entri : kelompok) {
+                entri.selesai.completeExceptionally(ditolak);
+            }
+            return;
+        }
+        List<Entri> menunggu = new ArrayList<>(kelompok.size());
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * kelompok.size());
+            for (Entri entri : kelompok) {
+                if (entri.checkpoint) {
+                    // Tulis dan fsync entri sebelum checkpoint, baru kosongkan log
+                    tulisDanSync(buffer, menunggu);
+                    channel.truncate(0);
+                    channel.force(true);
+                    entri.selesai.complete(null);
+                    continue;
+                }
+                byte[] kode = entri.kode.getBytes(StandardCharsets.UTF_8);
+                int panjangPayload = 8 + 1 + 1 + kode.length + 4;
+                if (buffer.remaining() < UKURAN_HEADER_ENTRI + panjangPayload) {
+                    buffer = perbesar(buffer, UKURAN_HEADER_ENTRI + panjangPayload);
+                }
+                int awalPayload = buffer.position() + UKURAN_HEADER_ENTRI;
+                buffer.putInt(panjangPayload).putInt(0);
+                buffer.putLong(urutanBerikutnya++).put((byte) entri.jenis.ordinal())
+                        .put((byte) kode.length).put(kode).putInt(entri.nilai);
+                buffer.putInt(awalPayload - 4, crc(buffer, awalPayload, panjangPayload));
+                menunggu.add(entri);
+            }
+            tulisDanSync(buffer, menunggu);
+        } catch (IOException | RuntimeException e) {
+            // Posisi channel dan isi ekor file tidak pasti lagi; entri yang sudah di-fsync
+            // sebelum error tetap selesai normal (complete kedua diabaikan)
+            kesalahan = e;
+            for (Entri entri : kelompok) {
+                entri.selesai.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void tulisDanSync(ByteBuffer buffer, List<Entri> menunggu) throws IOException {
+        if (menunggu.isEmpty()) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(false);
+        for (Entri entri : menunggu) {
+            entri.selesai.complete(null);
+        }
+        menunggu.clear();
+    }
+
+    private static ByteBuffer perbesar(ByteBuffer lama, int tambahan) {
+        ByteBuffer baru = ByteBuffer.allocate(Math.max(lama.capacity() * 2, lama.position() + tambahan));
+        lama.flip();
+        baru.put(lama);
+        return baru;
+    }
+
+    private static int crc(ByteBuffer buffer, int awal, int panjang) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.duplicate().position(awal).limit(awal + panjang));
+        return (int) crc32.getValue();
+    }
+
+    // null kalau sudah di akhir file atau entri terpotong/rusak
+    private static ByteBuffer bacaEntri(FileChannel baca, ByteBuffer header) throws IOException {
+        header.clear();
+        if (!bacaPenuh(baca, header)) {
+            return null;
+        }
+        header.flip();
+        int panjang = header.getInt();
+        int crcTersimpan = header.getInt();
+        if (panjang <= 0 || panjang > 1024) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(panjang);
+        if (!bacaPenuh(baca, payload)) {
+            return null;
+        }
+        if (crc(payload, 0, panjang) != crcTersimpan) {
+            return null;
+        }
+        payload.flip();
+        return payload;
+    }
+
+    private static boolean bacaPenuh(FileChannel baca, ByteBuffer tujuan) throws IOException {
+        while (tujuan.hasRemaining()) {
+            if (baca.read(tujuan) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lanjutkan nomor urut dari entri utuh terakhir dan potong ekor yang rusak,
+    // supaya entri baru tidak ditulis di belakang sampah yang menghentikan replay
+    private void pulihkanEkor() throws IOException {
+        long terakhir = 0;
+        long akhirValid = 0;
+        channel.position(0);
+        ByteBuffer header = ByteBuffer.allocate(UKURAN_HEADER_ENTRI);
+        ByteBuffer payload;
+        while ((payload = bacaEntri(channel, header)) != null) {
+            terakhir = payload.getLong();
+            akhirValid = channel.position();
+        }
+        channel.truncate(akhirValid);
+        channel.position(akhirValid);
+        urutanBerikutnya = terakhir + 1;
+    }
+
+    private static final class Entri {
+        final Jenis jenis;
+        final String kode;
+        final int nilai;
+        final boolean checkpoint;
+        final CompletableFuture<Void> selesai = new CompletableFuture<>();
+
+        Entri(Jenis jenis, String kode, int nilai, boolean checkpoint) {
+            this.jenis = jenis;
+            this.kode = kode;
+            this.nilai = nilai;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
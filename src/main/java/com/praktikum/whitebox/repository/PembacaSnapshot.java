@@ -0,0 +1,196 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+import com.praktikum.whitebox.model.Produk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Membaca snapshot {@link FormatSnapshot} secara streaming: file dibaca per blok 64 KB dan
+ * teks di-decode langsung dari array buffer, jadi biaya per produk hanya objek Produk dan
+ * String-nya. Nama kategori di produk memakai instance String dari kamus, tidak disalin.
+ * File yang terpotong, versi yang tidak dikenal, atau jumlah produk yang tidak cocok dengan
+ * rekaman AKHIR menghasilkan {@link IOException}. {@link #muat} membaca file dua kali lewat
+ * channel yang sama: lintasan pertama hanya memverifikasi sampai rekaman AKHIR, lintasan kedua
+ * menyimpan produk per batch. Snapshot rusak tidak dimuat sebagian, dan memori yang dipakai
+ * sebatas satu batch, bukan seluruh katalog.
+ */
+public class PembacaSnapshot implements Closeable {
+    private static final int UKURAN_BATCH_MUAT = 10_000;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(FormatSnapshot.UKURAN_BUFFER);
+    private final List<Kategori> daftarKategori = new ArrayList<>();
+    private int jumlahProduk;
+    private boolean selesai;
+
+    public PembacaSnapshot(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    // Mulai membaca dari posisi channel saat ini; channel ditutup kalau header tidak valid
+    private PembacaSnapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.limit(0);
+        try {
+            pastikan(FormatSnapshot.UKURAN_HEADER);
+            if (buffer.getInt() != FormatSnapshot.MAGIC) {
+                throw new IOException("Bukan file snapshot katalog");
+            }
+            byte versi = buffer.get();
+            if (versi != FormatSnapshot.VERSI) {
+                throw new IOException("Versi snapshot tidak didukung: " + versi);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Verifikasi seluruh snapshot sampai rekaman AKHIR tanpa menyimpan apa pun, lalu baca ulang
+    // dari awal dan simpan ke repository lewat simpanSemua per batch. Satu channel dipakai untuk
+    // kedua lintasan, jadi penggantian file secara atomik di tengah jalan tidak ikut terbaca
+    public static int muat(Path file, RepositoryProduk repository) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            PembacaSnapshot pemeriksa = new PembacaSnapshot(channel);
+            while (pemeriksa.bacaProduk() != null) {
+                // Produk dibuang; hanya strukturnya yang diperiksa
+            }
+            channel.position(0);
+            PembacaSnapshot pembaca = new PembacaSnapshot(channel);
+            int jumlah = 0;
+            List<Produk> batch = new ArrayList<>(UKURAN_BATCH_MUAT);
+            Produk produk;
+            while ((produk = pembaca.bacaProduk()) != null) {
+                batch.add(produk);
+                if (batch.size() == UKURAN_BATCH_MUAT) {
+                    jumlah += repository.simpanSemua(batch);
+                    batch = new ArrayList<>(UKURAN_BATCH_MUAT);
+                }
+            }
+            if (!batch.isEmpty()) {
+                jumlah += repository.simpanSemua(batch);
+            }
+            return jumlah;
+        }
+    }
+
+    // Produk berikutnya, atau null setelah rekaman AKHIR
+    public Produk bacaProduk() throws IOException {
+        while (!selesai) {
+            byte tag = bacaByte();
+            switch (tag) {
+                case FormatSnapshot.TAG_KATEGORI:
+                    daftarKategori.add(new Kategori(bacaTeks(), bacaTeks(), bacaTeks()));
+                    break;
+                case FormatSnapshot.TAG_PRODUK:
+                    return bacaIsiProduk();
+                case FormatSnapshot.TAG_AKHIR:
+                    int jumlahTercatat = bacaVarint();
+                    if (jumlahTercatat != jumlahProduk) {
+                        throw new IOException("Snapshot rusak: jumlah produk " + jumlahProduk
+                                + ", tercatat " + jumlahTercatat);
+                    }
+                    selesai = true;
+                    break;
+                default:
+                    throw new IOException("Snapshot rusak: tag tidak dikenal " + tag);
+            }
+        }
+        return null;
+    }
+
+    // Kategori yang sudah terbaca sejauh ini, urut id kamus
+    public List<Kategori> getDaftarKategori() {
+        return Collections.unmodifiableList(daftarKategori);
+    }
+
+    public int getJumlahProduk() {
+        return jumlahProduk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Produk bacaIsiProduk() throws IOException {
+        String kode = bacaTeks();
+        String nama = bacaTeks();
+        int refKategori = bacaVarint();
+        String kategori = null;
+        if (refKategori > 0) {
+            if (refKategori > daftarKategori.size()) {
+                throw new IOException("Snapshot rusak: kategori " + refKategori + " belum didefinisikan");
+            }
+            kategori = daftarKategori.get(refKategori - 1).getNamaKategori();
+        }
+        pastikan(8);
+        double harga = buffer.getDouble();
+        int stok = FormatSnapshot.unzigzag(bacaVarint());
+        int stokMinimum = FormatSnapshot.unzigzag(bacaVarint());
+        boolean aktif = bacaByte() != 0;
+        Produk produk = new Produk(kode, nama, kategori, harga, stok, stokMinimum);
+        produk.setAktif(aktif);
+        jumlahProduk++;
+        return produk;
+    }
+
+    private String bacaTeks() throws IOException {
+        int panjang = bacaVarint() - 1;
+        if (panjang < 0) {
+            return null;
+        }
+        pastikan(panjang);
+        String teks = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), panjang,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + panjang);
+        return teks;
+    }
+
+    private int bacaVarint() throws IOException {
+        int hasil = 0;
+        for (int geser = 0; geser < 32; geser += 7) {
+            byte b = bacaByte();
+            hasil |= (b & 0x7F) << geser;
+            if ((b & 0x80) == 0) {
+                return hasil;
+            }
+        }
+        throw new IOException("Snapshot rusak: varint terlalu panjang");
+    }
+
+    private byte bacaByte() throws IOException {
+        pastikan(1);
+        return buffer.get();
+    }
+
+    // Isi ulang buffer sampai minimal n byte tersedia; gagal kalau file habis lebih dulu
+    private void pastikan(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        if (buffer.capacity() < n) {
+            ByteBuffer besar = ByteBuffer.allocate(n);
+            besar.put(buffer);
+            buffer = besar;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Snapshot terpotong");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,14 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+/**
+ * Dipanggil ketika status stok produk berpindah (misalnya AMAN ke MENIPIS).
+ * statusLama bernilai null untuk produk baru, statusBaru null untuk produk yang dihapus.
+ * Dipanggil di thread yang melakukan perubahan, jadi harus cepat dan tidak melempar exception.
+ */
+@FunctionalInterface
+public interface PendengarStatusStok {
+    void statusBerubah(Produk produk, StatusStok statusLama, StatusStok statusBaru);
+}
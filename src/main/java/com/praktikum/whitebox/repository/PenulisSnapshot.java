@@ -0,0 +1,164 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+import com.praktikum.whitebox.model.Produk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Menulis snapshot katalog dalam {@link FormatSnapshot} secara streaming lewat buffer 64 KB.
+ * Kategori yang dipakai produk tapi belum ditulis lewat {@link #tulisKategori} otomatis
+ * ditambahkan ke kamus (hanya namanya).
+ * <p>
+ * Isi ditulis ke file sementara di sebelah file tujuan. {@link #selesai()} menulis rekaman AKHIR,
+ * fsync, lalu memindahkannya ke file tujuan secara atomik, jadi snapshot lama tetap utuh sampai
+ * snapshot baru lengkap. {@link #close()} tanpa {@code selesai()} (misalnya karena error) membuang
+ * file sementara tanpa menulis rekaman AKHIR.
+ */
+public class PenulisSnapshot implements Closeable {
+    private final Path file;
+    private final Path sementara;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(FormatSnapshot.UKURAN_BUFFER);
+    private final Map<String, Integer> idKategori = new HashMap<>();
+    private int jumlahProduk;
+    private boolean selesai;
+
+    public PenulisSnapshot(Path file) throws IOException {
+        this.file = file;
+        this.sementara = file.resolveSibling(file.getFileName() + ".tulis");
+        this.channel = FileChannel.open(sementara, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(FormatSnapshot.MAGIC);
+        buffer.put(FormatSnapshot.VERSI);
+    }
+
+    // Tulis seluruh isi repository ke file; produk dibaca satu per satu lewat untukSetiap
+    public static int tulis(Path file, RepositoryProduk repository) throws IOException {
+        try (PenulisSnapshot penulis = new PenulisSnapshot(file)) {
+            repository.untukSetiap(produk -> {
+                try {
+                    penulis.tulisProduk(produk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            penulis.selesai();
+            return penulis.jumlahProduk;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public void tulisKategori(Kategori kategori) throws IOException {
+        if (kategori == null || kategori.getNamaKategori() == null || idKategori.containsKey(kategori.getNamaKategori())) {
+            return;
+        }
+        byte[] id = bytes(kategori.getIdKategori());
+        byte[] nama = bytes(kategori.getNamaKategori());
+        byte[] deskripsi = bytes(kategori.getDeskripsi());
+        sediakan(1 + ukuranTeks(id) + ukuranTeks(nama) + ukuranTeks(deskripsi));
+        buffer.put(FormatSnapshot.TAG_KATEGORI);
+        tulisTeks(id);
+        tulisTeks(nama);
+        tulisTeks(deskripsi);
+        idKategori.put(kategori.getNamaKategori(), idKategori.size());
+    }
+
+    public void tulisProduk(Produk produk) throws IOException {
+        int refKategori = 0;
+        if (produk.getKategori() != null) {
+            if (!idKategori.containsKey(produk.getKategori())) {
+                tulisKategori(new Kategori(null, produk.getKategori(), null));
+            }
+            refKategori = idKategori.get(produk.getKategori()) + 1;
+        }
+        byte[] kode = bytes(produk.getKode());
+        byte[] nama = bytes(produk.getNama());
+        sediakan(1 + ukuranTeks(kode) + ukuranTeks(nama) + FormatSnapshot.MAKS_VARINT * 3 + 8 + 1);
+        buffer.put(FormatSnapshot.TAG_PRODUK);
+        tulisTeks(kode);
+        tulisTeks(nama);
+        FormatSnapshot.tulisVarint(buffer, refKategori);
+        buffer.putDouble(produk.getHarga());
+        FormatSnapshot.tulisVarint(buffer, FormatSnapshot.zigzag(produk.getStok()));
+        FormatSnapshot.tulisVarint(buffer, FormatSnapshot.zigzag(produk.getStokMinimum()));
+        buffer.put((byte) (produk.isAktif() ? 1 : 0));
+        jumlahProduk++;
+    }
+
+    public int getJumlahProduk() {
+        return jumlahProduk;
+    }
+
+    // Tandai snapshot lengkap: tulis rekaman AKHIR, fsync, lalu ganti file tujuan secara atomik
+    public void selesai() throws IOException {
+        if (selesai) {
+            throw new IllegalStateException("Snapshot sudah diselesaikan");
+        }
+        sediakan(1 + FormatSnapshot.MAKS_VARINT);
+        buffer.put(FormatSnapshot.TAG_AKHIR);
+        FormatSnapshot.tulisVarint(buffer, jumlahProduk);
+        kosongkanBuffer();
+        channel.force(false);
+        channel.close();
+        Files.move(sementara, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        selesai = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (!selesai) {
+            // Snapshot tidak lengkap: file tujuan yang lama dibiarkan apa adanya
+            Files.deleteIfExists(sementara);
+        }
+    }
+
+    // Pastikan ada ruang untuk satu rekaman; buffer diperbesar hanya untuk teks yang sangat panjang
+    private void sediakan(int ukuran) throws IOException {
+        if (buffer.remaining() >= ukuran) {
+            return;
+        }
+        kosongkanBuffer();
+        if (buffer.capacity() < ukuran) {
+            buffer = ByteBuffer.allocate(ukuran);
+        }
+    }
+
+    private void kosongkanBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void tulisTeks(byte[] teks) {
+        if (teks == null) {
+            FormatSnapshot.tulisVarint(buffer, 0);
+            return;
+        }
+        FormatSnapshot.tulisVarint(buffer, teks.length + 1);
+        buffer.put(teks);
+    }
+
+    private static int ukuranTeks(byte[] teks) {
+        return FormatSnapshot.MAKS_VARINT + (teks == null ? 0 : teks.length);
+    }
+
+    private static byte[] bytes(String teks) {
+        return teks == null ? null : teks.getBytes(StandardCharsets.UTF_8);
+    }
+}
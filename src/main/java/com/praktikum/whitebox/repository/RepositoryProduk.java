@@ -1,9 +1,20 @@
 package com.praktikum.whitebox.repository;
 
+import com.praktikum.whitebox.model.ModePencarian;
 import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 public interface RepositoryProduk {
     boolean simpan(Produk produk);
     Optional<Produk> cariByKode(String kode);
@@ -14,4 +25,185 @@ public interface RepositoryProduk {
     boolean hapus(String kode);
     boolean updateStok(String kode, int stokBaru);
     List<Produk> cariSemua();
+
+    // Simpan banyak produk sekaligus (impor katalog); hasilnya jumlah produk yang tersimpan.
+    // Versi bawaan memanggil simpan per produk; implementasi dengan lock harus override supaya
+    // lock diambil sekali per batch.
+    default int simpanSemua(Collection<Produk> daftarProduk) {
+        int jumlah = 0;
+        for (Produk produk : daftarProduk) {
+            if (simpan(produk)) {
+                jumlah++;
+            }
+        }
+        return jumlah;
+    }
+
+    // Ambil banyak produk sekaligus; kode yang tidak ditemukan tidak ada di map.
+    // Versi bawaan memanggil cariByKode per kode; implementasi dengan lock atau I/O harus override
+    // supaya semua kode diambil dalam satu batch.
+    default Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        Map<String, Produk> hasil = new LinkedHashMap<>();
+        for (String kode : daftarKode) {
+            cariByKode(kode).ifPresent(p -> hasil.put(kode, p));
+        }
+        return hasil;
+    }
+
+    // true kalau cariByKodeBanyak benar-benar mengambil semua kode dalam satu batch (satu lock
+    // atau satu I/O), bukan mengulang cariByKode. Decorator meneruskan jawaban delegate-nya.
+    default boolean mendukungPencarianBatch() {
+        return false;
+    }
+
+    // Kurangi stok hanya jika produk ada, aktif, dan stoknya cukup.
+    // Versi bawaan masih baca-lalu-tulis; implementasi konkuren harus override agar atomik.
+    default boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        Optional<Produk> produk = cariByKode(kode);
+        if (!produk.isPresent() || !produk.get().isAktif()
+                || produk.get().getStok() < jumlah) {
+            return false;
+        }
+        return updateStok(kode, produk.get().getStok() - jumlah);
+    }
+
+    // Tambah stok jika produk ada dan aktif (versi bawaan tidak atomik)
+    default boolean tambahStok(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        Optional<Produk> produk = cariByKode(kode);
+        if (!produk.isPresent() || !produk.get().isAktif()) {
+            return false;
+        }
+        return updateStok(kode, produk.get().getStok() + jumlah);
+    }
+
+    // Kembalikan stok yang sebelumnya dikurangi (pembatalan reservasi, rollback batch) tanpa
+    // melihat status aktif; gagal hanya kalau produk tidak ada atau stok melewati batas int.
+    // Versi bawaan tidak atomik.
+    default boolean kembalikanStok(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        Optional<Produk> produk = cariByKode(kode);
+        if (!produk.isPresent() || produk.get().getStok() > Integer.MAX_VALUE - jumlah) {
+            return false;
+        }
+        return updateStok(kode, produk.get().getStok() + jumlah);
+    }
+
+    // Ubah status aktif produk lewat repository supaya indeks/agregat ikut diperbarui
+    default boolean updateAktif(String kode, boolean aktif) {
+        Optional<Produk> produk = cariByKode(kode);
+        if (!produk.isPresent()) {
+            return false;
+        }
+        produk.get().setAktif(aktif);
+        return true;
+    }
+
+    // Total nilai (harga * stok) produk aktif; versi bawaan menghitung ulang lewat untukSetiap
+    default double hitungTotalNilai() {
+        double[] total = {0};
+        untukSetiap(p -> {
+            if (p.isAktif()) {
+                total[0] += p.getHarga() * p.getStok();
+            }
+        });
+        return total[0];
+    }
+
+    // Total stok produk aktif; versi bawaan menghitung ulang lewat untukSetiap
+    default int hitungTotalStok() {
+        int[] total = {0};
+        untukSetiap(p -> {
+            if (p.isAktif()) {
+                total[0] += p.getStok();
+            }
+        });
+        return total[0];
+    }
+
+    default boolean updateStokMinimum(String kode, int stokMinimum) {
+        Optional<Produk> produk = cariByKode(kode);
+        if (!produk.isPresent()) {
+            return false;
+        }
+        produk.get().setStokMinimum(stokMinimum);
+        return true;
+    }
+
+    // Cari nama (awalan atau substring, tidak peka huruf besar/kecil) dengan halaman hasil,
+    // terurut nama lalu kode. Versi bawaan memindai cariSemua(); implementasi berindeks harus override.
+    default List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        if (teks == null || teks.isEmpty() || mode == null || offset < 0 || batas <= 0) {
+            return new ArrayList<>();
+        }
+        String kunci = teks.toLowerCase(Locale.ROOT);
+        return cariSemua().stream()
+                .filter(p -> p.getNama() != null && mode.cocok(p.getNama().toLowerCase(Locale.ROOT), kunci))
+                .sorted(Comparator.comparing((Produk p) -> p.getNama().toLowerCase(Locale.ROOT))
+                        .thenComparing(Produk::getKode))
+                .skip(offset)
+                .limit(batas)
+                .collect(Collectors.toList());
+    }
+
+    // Kirim setiap produk ke aksi satu per satu tanpa membangun List hasil.
+    // Versi bawaan masih memakai cariSemua(); implementasi untuk katalog besar harus override.
+    default void untukSetiap(Consumer<? super Produk> aksi) {
+        cariSemua().forEach(aksi);
+    }
+
+    default void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        if (kategori == null) {
+            return;
+        }
+        untukSetiap(p -> {
+            if (kategori.equals(p.getKategori())) {
+                aksi.accept(p);
+            }
+        });
+    }
+
+    default void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        if (status == null) {
+            return;
+        }
+        untukSetiap(p -> {
+            if (p.getStatusStok() == status) {
+                aksi.accept(p);
+            }
+        });
+    }
+
+    // Halaman produk terurut kode, dimulai setelah kodeTerakhir (null = halaman pertama).
+    // Keyset: halaman berikutnya diminta dengan kode terakhir halaman ini, jadi tetap stabil
+    // walau ada produk ditambah/dihapus di antara dua halaman. Memori yang dipakai sebanding batas.
+    default List<Produk> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        if (batas <= 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap kode: kalau penuh, kode terbesar dibuang saat ada kode yang lebih kecil
+        PriorityQueue<Produk> halaman = new PriorityQueue<>(Comparator.comparing(Produk::getKode).reversed());
+        untukSetiap(p -> {
+            String kode = p.getKode();
+            if (kodeTerakhir != null && kode.compareTo(kodeTerakhir) <= 0) {
+                return;
+            }
+            if (halaman.size() < batas) {
+                halaman.add(p);
+            } else if (kode.compareTo(halaman.peek().getKode()) < 0) {
+                halaman.poll();
+                halaman.add(p);
+            }
+        });
+        List<Produk> hasil = new ArrayList<>(halaman);
+        hasil.sort(Comparator.comparing(Produk::getKode));
+        return hasil;
+    }
 }
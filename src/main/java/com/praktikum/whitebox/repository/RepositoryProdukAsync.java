@@ -0,0 +1,56 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// SPI repository non-blocking: setiap operasi langsung mengembalikan future,
+// jadi beberapa pencarian/perubahan bisa dikirim bersamaan (pipelining)
+public interface RepositoryProdukAsync {
+    CompletableFuture<Boolean> simpan(Produk produk);
+    CompletableFuture<Optional<Produk>> cariByKode(String kode);
+    CompletableFuture<List<Produk>> cariByNama(String nama);
+    CompletableFuture<List<Produk>> cariByNama(String teks, ModePencarian mode, int offset, int batas);
+    CompletableFuture<List<Produk>> cariByKategori(String kategori);
+    CompletableFuture<List<Produk>> cariProdukStokMenipis();
+    CompletableFuture<List<Produk>> cariProdukStokHabis();
+    CompletableFuture<Boolean> hapus(String kode);
+    CompletableFuture<Boolean> updateStok(String kode, int stokBaru);
+    CompletableFuture<Boolean> kurangiStokJikaCukup(String kode, int jumlah);
+    CompletableFuture<Boolean> tambahStok(String kode, int jumlah);
+    CompletableFuture<Boolean> kembalikanStok(String kode, int jumlah);
+    CompletableFuture<Boolean> updateAktif(String kode, boolean aktif);
+    CompletableFuture<Boolean> updateStokMinimum(String kode, int stokMinimum);
+    CompletableFuture<List<Produk>> cariSemuaSetelah(String kodeTerakhir, int batas);
+    CompletableFuture<Double> hitungTotalNilai();
+    CompletableFuture<Integer> hitungTotalStok();
+
+    // Semua pencarian dikirim sekaligus lalu digabung; kode yang tidak ditemukan tidak ada di map.
+    // Implementasi yang punya pencarian batch (misalnya satu query IN) sebaiknya override.
+    default CompletableFuture<Map<String, Produk>> cariByKodeBanyak(Collection<String> daftarKode) {
+        List<String> kodeUnik = new ArrayList<>(new LinkedHashSet<>(daftarKode));
+        List<CompletableFuture<Optional<Produk>>> pencarian = new ArrayList<>(kodeUnik.size());
+        for (String kode : kodeUnik) {
+            pencarian.add(cariByKode(kode));
+        }
+        return CompletableFuture.allOf(pencarian.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    Map<String, Produk> hasil = new LinkedHashMap<>();
+                    for (int i = 0; i < kodeUnik.size(); i++) {
+                        Optional<Produk> produk = pencarian.get(i).join();
+                        if (produk.isPresent()) {
+                            hasil.put(kodeUnik.get(i), produk.get());
+                        }
+                    }
+                    return hasil;
+                });
+    }
+}
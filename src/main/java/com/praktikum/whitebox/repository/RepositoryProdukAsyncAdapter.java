@@ -0,0 +1,130 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link RepositoryProdukAsync} di atas {@link RepositoryProduk} biasa: setiap panggilan blocking
+ * dijalankan di executor yang diberikan. Dengan executor virtual thread atau pool yang cukup besar,
+ * pencarian untuk banyak kode berjalan bersamaan, bukan satu per satu.
+ * <p>
+ * {@link #cariByKodeBanyak} hanya diteruskan sebagai satu tugas kalau repository dasar
+ * {@link RepositoryProduk#mendukungPencarianBatch() mendukung pencarian batch}; kalau tidak,
+ * tiap kode dicari sebagai tugas terpisah.
+ */
+public class RepositoryProdukAsyncAdapter implements RepositoryProdukAsync {
+    private final RepositoryProduk delegate;
+    private final Executor executor;
+
+    public RepositoryProdukAsyncAdapter(RepositoryProduk delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> simpan(Produk produk) {
+        return jalankan(() -> delegate.simpan(produk));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Produk>> cariByKode(String kode) {
+        return jalankan(() -> delegate.cariByKode(kode));
+    }
+
+    // Satu tugas kalau repository bisa mengambil semua kode dalam satu batch; versi bawaan
+    // RepositoryProduk hanya mengulang cariByKode, jadi lebih cepat kalau tiap kode dicari bersamaan
+    @Override
+    public CompletableFuture<Map<String, Produk>> cariByKodeBanyak(Collection<String> daftarKode) {
+        if (delegate.mendukungPencarianBatch()) {
+            return jalankan(() -> delegate.cariByKodeBanyak(daftarKode));
+        }
+        return RepositoryProdukAsync.super.cariByKodeBanyak(daftarKode);
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariByNama(String nama) {
+        return jalankan(() -> delegate.cariByNama(nama));
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        return jalankan(() -> delegate.cariByNama(teks, mode, offset, batas));
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariByKategori(String kategori) {
+        return jalankan(() -> delegate.cariByKategori(kategori));
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariProdukStokMenipis() {
+        return jalankan(delegate::cariProdukStokMenipis);
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariProdukStokHabis() {
+        return jalankan(delegate::cariProdukStokHabis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hapus(String kode) {
+        return jalankan(() -> delegate.hapus(kode));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateStok(String kode, int stokBaru) {
+        return jalankan(() -> delegate.updateStok(kode, stokBaru));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> kurangiStokJikaCukup(String kode, int jumlah) {
+        return jalankan(() -> delegate.kurangiStokJikaCukup(kode, jumlah));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tambahStok(String kode, int jumlah) {
+        return jalankan(() -> delegate.tambahStok(kode, jumlah));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> kembalikanStok(String kode, int jumlah) {
+        return jalankan(() -> delegate.kembalikanStok(kode, jumlah));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateAktif(String kode, boolean aktif) {
+        return jalankan(() -> delegate.updateAktif(kode, aktif));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateStokMinimum(String kode, int stokMinimum) {
+        return jalankan(() -> delegate.updateStokMinimum(kode, stokMinimum));
+    }
+
+    @Override
+    public CompletableFuture<List<Produk>> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        return jalankan(() -> delegate.cariSemuaSetelah(kodeTerakhir, batas));
+    }
+
+    @Override
+    public CompletableFuture<Double> hitungTotalNilai() {
+        return jalankan(delegate::hitungTotalNilai);
+    }
+
+    @Override
+    public CompletableFuture<Integer> hitungTotalStok() {
+        return jalankan(delegate::hitungTotalStok);
+    }
+
+    private <T> CompletableFuture<T> jalankan(Supplier<T> operasi) {
+        return CompletableFuture.supplyAsync(operasi, executor);
+    }
+}
@@ -0,0 +1,375 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Decorator {@link RepositoryProduk} yang menyimpan hasil {@link #cariByKode} di cache berukuran
+ * tetap, untuk repository dasar yang lambat diakses.
+ * <p>
+ * Eviksi memakai segmented LRU: produk baru masuk segmen percobaan (20% kapasitas), dan baru
+ * dipindah ke segmen terlindung setelah dibaca kedua kalinya. Produk yang hanya sekali dibaca
+ * (misalnya saat laporan memindai katalog) tersingkir dari segmen percobaan tanpa mengusir
+ * SKU yang sering dicari. Kalau segmen terlindung penuh, produk paling lama di sana turun
+ * kembali ke segmen percobaan.
+ * <p>
+ * Setiap penulisan diteruskan dulu ke delegate, lalu entri kodenya dibuang dari cache
+ * (write-through invalidation). Pembacaan yang sedang memuat suatu kode dari delegate saat kode
+ * itu ditulis tidak menyimpan hasilnya, jadi cache tidak terisi nilai lama; penulisan kode lain
+ * tidak mengganggu muatan yang sedang berjalan. Produk yang dikembalikan adalah objek yang
+ * sama untuk setiap hit; ubah produk lewat repository, bukan langsung.
+ * <p>
+ * Cache dibagi menjadi beberapa shard menurut hash kode, masing-masing dengan lock, segmen dan
+ * kapasitas sendiri, jadi hit untuk kode berbeda tidak antre di satu monitor. Akibatnya urutan
+ * LRU dan eviksi berlaku per shard, bukan global.
+ */
+public class RepositoryProdukCache implements RepositoryProduk {
+    private static final int PERSEN_PERCOBAAN = 20;
+    private static final int JUMLAH_SHARD_MAKS = 16;
+
+    private final RepositoryProduk delegate;
+    private final Shard[] shard;
+
+    private final LongAdder jumlahHit = new LongAdder();
+    private final LongAdder jumlahMiss = new LongAdder();
+    private final LongAdder jumlahEviksi = new LongAdder();
+
+    public RepositoryProdukCache(RepositoryProduk delegate, int kapasitas) {
+        if (kapasitas < 2) {
+            throw new IllegalArgumentException("Kapasitas cache minimal 2");
+        }
+        this.delegate = delegate;
+        // Jumlah shard pangkat dua, dan setiap shard minimal berkapasitas 2
+        int jumlahShard = Integer.highestOneBit(Math.min(JUMLAH_SHARD_MAKS, kapasitas / 2));
+        this.shard = new Shard[jumlahShard];
+        for (int i = 0; i < jumlahShard; i++) {
+            shard[i] = new Shard(kapasitas / jumlahShard + (i < kapasitas % jumlahShard ? 1 : 0));
+        }
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        if (kode == null) {
+            return Optional.empty();
+        }
+        Shard s = shardUntuk(kode);
+        Object token = new Object();
+        synchronized (s) {
+            Produk produk = s.ambil(kode);
+            if (produk != null) {
+                jumlahHit.increment();
+                return Optional.of(produk);
+            }
+            s.muatanBerjalan.put(kode, token);
+        }
+        jumlahMiss.increment();
+        Optional<Produk> produk = Optional.empty();
+        try {
+            // Muat di luar lock supaya delegate yang lambat tidak menahan pembaca lain
+            produk = delegate.cariByKode(kode);
+            return produk;
+        } finally {
+            synchronized (s) {
+                s.simpanJikaBelumBerubah(kode, produk.orElse(null), token);
+            }
+        }
+    }
+
+    // Miss diambil dengan satu panggilan ke delegate, jadi batch hanya berguna kalau delegate-nya batch
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return delegate.mendukungPencarianBatch();
+    }
+
+    // Hit dilayani dari cache; semua miss diambil dari delegate dalam satu panggilan batch
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        Map<String, Produk> hasil = new LinkedHashMap<>();
+        Set<String> miss = new LinkedHashSet<>();
+        Object token = new Object();
+        for (String kode : daftarKode) {
+            if (kode == null || hasil.containsKey(kode) || miss.contains(kode)) {
+                continue;
+            }
+            Shard s = shardUntuk(kode);
+            synchronized (s) {
+                Produk produk = s.ambil(kode);
+                if (produk != null) {
+                    jumlahHit.increment();
+                    hasil.put(kode, produk);
+                } else {
+                    miss.add(kode);
+                    s.muatanBerjalan.put(kode, token);
+                }
+            }
+        }
+        if (miss.isEmpty()) {
+            return hasil;
+        }
+        jumlahMiss.add(miss.size());
+        Map<String, Produk> dimuat = Map.of();
+        try {
+            dimuat = delegate.cariByKodeBanyak(miss);
+            hasil.putAll(dimuat);
+            return hasil;
+        } finally {
+            for (String kode : miss) {
+                Shard s = shardUntuk(kode);
+                synchronized (s) {
+                    s.simpanJikaBelumBerubah(kode, dimuat.get(kode), token);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        boolean berhasil = delegate.simpan(produk);
+        if (produk != null) {
+            invalidasi(produk.getKode());
+        }
+        return berhasil;
+    }
+
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        int jumlah = delegate.simpanSemua(daftarProduk);
+        for (Produk produk : daftarProduk) {
+            if (produk != null) {
+                invalidasi(produk.getKode());
+            }
+        }
+        return jumlah;
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        boolean berhasil = delegate.hapus(kode);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        boolean berhasil = delegate.updateStok(kode, stokBaru);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        boolean berhasil = delegate.kurangiStokJikaCukup(kode, jumlah);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        boolean berhasil = delegate.tambahStok(kode, jumlah);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        boolean berhasil = delegate.kembalikanStok(kode, jumlah);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        boolean berhasil = delegate.updateAktif(kode, aktif);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        boolean berhasil = delegate.updateStokMinimum(kode, stokMinimum);
+        invalidasi(kode);
+        return berhasil;
+    }
+
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        return delegate.cariByNama(nama);
+    }
+
+    @Override
+    public List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        return delegate.cariByNama(teks, mode, offset, batas);
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        return delegate.cariByKategori(kategori);
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return delegate.cariProdukStokMenipis();
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return delegate.cariProdukStokHabis();
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return delegate.cariSemua();
+    }
+
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        delegate.untukSetiap(aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByKategori(kategori, aksi);
+    }
+
+    @Override
+    public void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByStatusStok(status, aksi);
+    }
+
+    @Override
+    public List<Produk> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        return delegate.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+
+    @Override
+    public double hitungTotalNilai() {
+        return delegate.hitungTotalNilai();
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        return delegate.hitungTotalStok();
+    }
+
+    public long getJumlahHit() {
+        return jumlahHit.sum();
+    }
+
+    public long getJumlahMiss() {
+        return jumlahMiss.sum();
+    }
+
+    public long getJumlahEviksi() {
+        return jumlahEviksi.sum();
+    }
+
+    public int ukuran() {
+        int jumlah = 0;
+        for (Shard s : shard) {
+            synchronized (s) {
+                jumlah += s.percobaan.size() + s.terlindung.size();
+            }
+        }
+        return jumlah;
+    }
+
+    // Kosongkan cache; dipakai kalau delegate diubah tanpa lewat decorator ini
+    public void kosongkan() {
+        for (Shard s : shard) {
+            synchronized (s) {
+                s.percobaan.clear();
+                s.terlindung.clear();
+                s.muatanBerjalan.clear();
+            }
+        }
+    }
+
+    private void invalidasi(String kode) {
+        if (kode == null) {
+            return;
+        }
+        Shard s = shardUntuk(kode);
+        synchronized (s) {
+            s.percobaan.remove(kode);
+            s.terlindung.remove(kode);
+            s.muatanBerjalan.remove(kode);
+        }
+    }
+
+    private Shard shardUntuk(String kode) {
+        // Sebar bit atas hash ke bawah, karena jumlah shard kecil dan pangkat dua
+        int h = kode.hashCode();
+        return shard[(h ^ (h >>> 16)) & (shard.length - 1)];
+    }
+
+    // Satu potongan cache: segmen percobaan dan terlindung dengan lock-nya sendiri (monitor objek ini)
+    private final class Shard {
+        private final int kapasitasPercobaan;
+        private final int kapasitasTerlindung;
+        // LinkedHashMap urutan akses: entri pertama adalah yang paling lama tidak dipakai
+        private final LinkedHashMap<String, Produk> percobaan = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, Produk> terlindung = new LinkedHashMap<>(16, 0.75f, true);
+        // Token muatan dari delegate yang sedang berjalan per kode. Invalidasi membuang token kodenya,
+        // dan muatan hanya disimpan kalau tokennya masih terpasang
+        private final Map<String, Object> muatanBerjalan = new HashMap<>();
+
+        Shard(int kapasitas) {
+            this.kapasitasPercobaan = Math.max(1, kapasitas * PERSEN_PERCOBAAN / 100);
+            this.kapasitasTerlindung = kapasitas - kapasitasPercobaan;
+        }
+
+        // Hit di segmen percobaan naik ke segmen terlindung; dipanggil di bawah lock shard
+        Produk ambil(String kode) {
+            Produk produk = terlindung.get(kode);
+            if (produk == null) {
+                produk = percobaan.remove(kode);
+                if (produk != null) {
+                    lindungi(kode, produk);
+                }
+            }
+            return produk;
+        }
+
+        // Lepas token muatan; produk hanya disimpan kalau kodenya tidak ditulis selama dimuat
+        void simpanJikaBelumBerubah(String kode, Produk produk, Object token) {
+            if (muatanBerjalan.remove(kode, token) && produk != null && !terlindung.containsKey(kode)) {
+                percobaan.put(kode, produk);
+                buangBerlebih(percobaan, kapasitasPercobaan);
+            }
+        }
+
+        // Pindah ke segmen terlindung; yang paling lama di sana turun ke segmen percobaan
+        private void lindungi(String kode, Produk produk) {
+            terlindung.put(kode, produk);
+            if (terlindung.size() > kapasitasTerlindung) {
+                Iterator<Map.Entry<String, Produk>> it = terlindung.entrySet().iterator();
+                Map.Entry<String, Produk> tertua = it.next();
+                it.remove();
+                percobaan.put(tertua.getKey(), tertua.getValue());
+                buangBerlebih(percobaan, kapasitasPercobaan);
+            }
+        }
+
+        private void buangBerlebih(LinkedHashMap<String, Produk> segmen, int kapasitas) {
+            Iterator<Map.Entry<String, Produk>> it = segmen.entrySet().iterator();
+            while (segmen.size() > kapasitas) {
+                it.next();
+                it.remove();
+                jumlahEviksi.increment();
+            }
+        }
+    }
+}
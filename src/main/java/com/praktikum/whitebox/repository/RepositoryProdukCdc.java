@@ -0,0 +1,210 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.PeristiwaProduk;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Decorator {@link RepositoryProduk} yang menerbitkan {@link PeristiwaProduk} ke
+ * {@link AliranPeristiwa} untuk setiap mutasi yang berhasil, supaya sistem hilir tidak perlu
+ * memanggil cariSemua() berulang kali. Mutasi lewat {@code ServiceInventaris} di atas decorator
+ * ini (termasuk reservasi pesanan) ikut terbit, karena semuanya berakhir di repository.
+ * <p>
+ * Mutasi dan penerbitan untuk kode yang sama dijalankan di bawah lock stripe, jadi urutan
+ * sekuens per kode sama dengan urutan penerapannya. Stripe berupa {@link ReentrantLock} karena
+ * mutasi delegate bisa blocking (misalnya menunggu fsync di {@link RepositoryProdukWal}), dan
+ * monitor synchronized akan menahan carrier thread virtual thread selama itu. Penerbitan hanya mengklaim slot di ring,
+ * sehingga biaya tambahan di jalur tulis kecil; pelanggan memproses peristiwa di thread sendiri.
+ * {@link #simpanSemua} menyimpan per produk, karena setiap produk butuh peristiwa sendiri.
+ */
+public class RepositoryProdukCdc implements RepositoryProduk {
+    private static final int JUMLAH_STRIPE = 256;
+
+    private final RepositoryProduk delegate;
+    private final AliranPeristiwa aliran;
+    private final ReentrantLock[] stripe = new ReentrantLock[JUMLAH_STRIPE];
+
+    public RepositoryProdukCdc(RepositoryProduk delegate, AliranPeristiwa aliran) {
+        this.delegate = delegate;
+        this.aliran = aliran;
+        for (int i = 0; i < JUMLAH_STRIPE; i++) {
+            stripe[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        if (produk == null || produk.getKode() == null) {
+            return delegate.simpan(produk);
+        }
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.DISIMPAN, produk.getKode(), 0,
+                () -> delegate.simpan(produk), produk);
+    }
+
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        int jumlah = 0;
+        for (Produk produk : daftarProduk) {
+            if (simpan(produk)) {
+                jumlah++;
+            }
+        }
+        return jumlah;
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.DIHAPUS, kode, 0,
+                () -> delegate.hapus(kode), null);
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.STOK_DIUBAH, kode, stokBaru,
+                () -> delegate.updateStok(kode, stokBaru), null);
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.STOK_KELUAR, kode, jumlah,
+                () -> delegate.kurangiStokJikaCukup(kode, jumlah), null);
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.STOK_MASUK, kode, jumlah,
+                () -> delegate.tambahStok(kode, jumlah), null);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.STOK_MASUK, kode, jumlah,
+                () -> delegate.kembalikanStok(kode, jumlah), null);
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        PeristiwaProduk.Jenis jenis = aktif ? PeristiwaProduk.Jenis.DIAKTIFKAN : PeristiwaProduk.Jenis.DINONAKTIFKAN;
+        return terbitkanJikaBerhasil(jenis, kode, 0, () -> delegate.updateAktif(kode, aktif), null);
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        return terbitkanJikaBerhasil(PeristiwaProduk.Jenis.STOK_MINIMUM_DIUBAH, kode, stokMinimum,
+                () -> delegate.updateStokMinimum(kode, stokMinimum), null);
+    }
+
+    public AliranPeristiwa getAliran() {
+        return aliran;
+    }
+
+    private boolean terbitkanJikaBerhasil(PeristiwaProduk.Jenis jenis, String kode, int jumlah,
+                                          BooleanSupplier mutasi, Produk produk) {
+        if (kode == null) {
+            return mutasi.getAsBoolean();
+        }
+        ReentrantLock kunci = stripe[(kode.hashCode() & 0x7fffffff) % JUMLAH_STRIPE];
+        kunci.lock();
+        try {
+            if (!mutasi.getAsBoolean()) {
+                return false;
+            }
+            aliran.terbitkan(jenis, kode, jumlah, produk == null ? null : salin(produk));
+            return true;
+        } finally {
+            kunci.unlock();
+        }
+    }
+
+    // Salinan supaya pelanggan tidak melihat perubahan yang terjadi setelah peristiwa terbit
+    private static Produk salin(Produk produk) {
+        Produk salinan = new Produk(produk.getKode(), produk.getNama(), produk.getKategori(),
+                produk.getHarga(), produk.getStok(), produk.getStokMinimum());
+        salinan.setAktif(produk.isAktif());
+        return salinan;
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        return delegate.cariByKode(kode);
+    }
+
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        return delegate.cariByKodeBanyak(daftarKode);
+    }
+
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return delegate.mendukungPencarianBatch();
+    }
+
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        return delegate.cariByNama(nama);
+    }
+
+    @Override
+    public List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        return delegate.cariByNama(teks, mode, offset, batas);
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        return delegate.cariByKategori(kategori);
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return delegate.cariProdukStokMenipis();
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return delegate.cariProdukStokHabis();
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return delegate.cariSemua();
+    }
+
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        delegate.untukSetiap(aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByKategori(kategori, aksi);
+    }
+
+    @Override
+    public void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByStatusStok(status, aksi);
+    }
+
+    @Override
+    public List<Produk> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        return delegate.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+
+    @Override
+    public double hitungTotalNilai() {
+        return delegate.hitungTotalNilai();
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        return delegate.hitungTotalStok();
+    }
+}
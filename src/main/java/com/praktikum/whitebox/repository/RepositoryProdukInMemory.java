@@ -0,0 +1,429 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Implementasi {@link RepositoryProduk} di memori yang aman dipakai banyak thread.
+ * Produk disimpan per kode, ditambah indeks sekunder per kategori dan per nama
+ * ({@link IndeksNama}: awalan dan substring) sehingga pencarian tidak perlu memindai semua produk.
+ * Total stok dan nilai produk aktif dijaga sebagai total berjalan, dan produk
+ * dikelompokkan per status stok dengan notifikasi saat statusnya berpindah.
+ * Perubahan data produk harus lewat method repository agar indeks tetap sinkron. Untuk setiap
+ * kode disimpan catatan isi yang sedang terindeks (kategori, nama, status, kontribusi total), dan
+ * saat produk berubah yang dicabut dari indeks adalah isi catatan itu, bukan nilai produk saat ini.
+ * Produk yang diubah lewat referensinya lalu disimpan ulang jadi tidak meninggalkan entri basi.
+ */
+public class RepositoryProdukInMemory implements RepositoryProduk {
+    private final ConcurrentHashMap<String, Produk> produkByKode = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> indeksKategori = new ConcurrentHashMap<>();
+    private final IndeksNama indeksNama = new IndeksNama();
+    // Isi indeks dan total berjalan yang sedang dicatat untuk tiap kode
+    private final ConcurrentHashMap<String, Terindeks> terindeks = new ConcurrentHashMap<>();
+    // Total berjalan produk aktif, diperbarui di setiap perubahan stok/status
+    private final LongAdder totalStokAktif = new LongAdder();
+    private final DoubleAdder totalNilaiAktif = new DoubleAdder();
+    // Set kode produk per status stok (HABIS / MENIPIS / AMAN)
+    private final Map<StatusStok, Set<String>> indeksStatus = new EnumMap<>(StatusStok.class);
+    private final List<PendengarStatusStok> pendengarStatus = new CopyOnWriteArrayList<>();
+
+    public RepositoryProdukInMemory() {
+        for (StatusStok status : StatusStok.values()) {
+            indeksStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        if (produk == null || produk.getKode() == null) {
+            return false;
+        }
+        // Status lama dan baru dibaca di dalam compute: di luarnya mutasi lain bisa sudah masuk
+        StatusStok[] statusLama = {null};
+        StatusStok[] statusBaru = {null};
+        // compute mengunci per kode, jadi update indeks untuk kode yang sama berurutan
+        produkByKode.compute(produk.getKode(), (kode, lama) -> {
+            statusLama[0] = sinkronkanIndeks(kode, produk);
+            statusBaru[0] = produk.getStatusStok();
+            return produk;
+        });
+        sinkronkanNama(produk.getKode());
+        beritahuPendengar(produk, statusLama[0], statusBaru[0]);
+        return true;
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        if (kode == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(produkByKode.get(kode));
+    }
+
+    // Cari produk yang namanya diawali teks tertentu (tidak peka huruf besar/kecil)
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        return cariByNama(nama, ModePencarian.AWALAN, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        List<String> daftarKode = indeksNama.cari(teks, mode, offset, batas);
+        List<Produk> hasil = new ArrayList<>(daftarKode.size());
+        ambilProduk(daftarKode, hasil);
+        return hasil;
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        if (kategori == null) {
+            return Collections.emptyList();
+        }
+        Set<String> kodeSet = indeksKategori.get(kategori);
+        if (kodeSet == null) {
+            return Collections.emptyList();
+        }
+        List<Produk> hasil = new ArrayList<>(kodeSet.size());
+        ambilProduk(kodeSet, hasil);
+        return hasil;
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return cariByStatusStok(StatusStok.MENIPIS);
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return cariByStatusStok(StatusStok.HABIS);
+    }
+
+    // Dibaca dari set status yang dijaga langsung, tanpa memindai semua produk
+    public List<Produk> cariByStatusStok(StatusStok status) {
+        Set<String> kodeSet = indeksStatus.get(status);
+        List<Produk> hasil = new ArrayList<>(kodeSet.size());
+        ambilProduk(kodeSet, hasil);
+        return hasil;
+    }
+
+    public int jumlahProduk(StatusStok status) {
+        return indeksStatus.get(status).size();
+    }
+
+    public void tambahPendengar(PendengarStatusStok pendengar) {
+        pendengarStatus.add(pendengar);
+    }
+
+    public void hapusPendengar(PendengarStatusStok pendengar) {
+        pendengarStatus.remove(pendengar);
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        if (kode == null) {
+            return false;
+        }
+        Produk[] terhapus = {null};
+        StatusStok[] statusLama = {null};
+        produkByKode.computeIfPresent(kode, (k, lama) -> {
+            statusLama[0] = sinkronkanIndeks(k, null);
+            terhapus[0] = lama;
+            return null;
+        });
+        if (terhapus[0] == null) {
+            return false;
+        }
+        sinkronkanNama(kode);
+        beritahuPendengar(terhapus[0], statusLama[0], null);
+        return true;
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        if (kode == null) {
+            return false;
+        }
+        StatusStok[] statusLama = {null};
+        StatusStok[] statusBaru = {null};
+        Produk produk = produkByKode.computeIfPresent(kode, (k, p) -> {
+            p.setStok(stokBaru);
+            statusLama[0] = sinkronkanIndeks(k, p);
+            statusBaru[0] = p.getStatusStok();
+            return p;
+        });
+        if (produk == null) {
+            return false;
+        }
+        beritahuPendengar(produk, statusLama[0], statusBaru[0]);
+        return true;
+    }
+
+    // Cek dan kurangi stok di dalam computeIfPresent: atomik per kode tanpa lock global
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        if (kode == null || jumlah <= 0) {
+            return false;
+        }
+        boolean[] berhasil = {false};
+        StatusStok[] statusLama = {null};
+        StatusStok[] statusBaru = {null};
+        Produk produk = produkByKode.computeIfPresent(kode, (k, p) -> {
+            if (p.isAktif() && p.getStok() >= jumlah) {
+                p.setStok(p.getStok() - jumlah);
+                statusLama[0] = sinkronkanIndeks(k, p);
+                statusBaru[0] = p.getStatusStok();
+                berhasil[0] = true;
+            }
+            return p;
+        });
+        if (berhasil[0]) {
+            beritahuPendengar(produk, statusLama[0], statusBaru[0]);
+        }
+        return berhasil[0];
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, true);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, false);
+    }
+
+    private boolean tambahStok(String kode, int jumlah, boolean wajibAktif) {
+        if (kode == null || jumlah <= 0) {
+            return false;
+        }
+        boolean[] berhasil = {false};
+        StatusStok[] statusLama = {null};
+        StatusStok[] statusBaru = {null};
+        Produk produk = produkByKode.computeIfPresent(kode, (k, p) -> {
+            // Tolak kalau hasilnya melewati batas int
+            if ((p.isAktif() || !wajibAktif) && p.getStok() <= Integer.MAX_VALUE - jumlah) {
+                p.setStok(p.getStok() + jumlah);
+                statusLama[0] = sinkronkanIndeks(k, p);
+                statusBaru[0] = p.getStatusStok();
+                berhasil[0] = true;
+            }
+            return p;
+        });
+        if (berhasil[0]) {
+            beritahuPendengar(produk, statusLama[0], statusBaru[0]);
+        }
+        return berhasil[0];
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        if (kode == null) {
+            return false;
+        }
+        return produkByKode.computeIfPresent(kode, (k, produk) -> {
+            if (produk.isAktif() != aktif) {
+                produk.setAktif(aktif);
+                sinkronkanIndeks(k, produk);
+            }
+            return produk;
+        }) != null;
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        if (kode == null) {
+            return false;
+        }
+        StatusStok[] statusLama = {null};
+        StatusStok[] statusBaru = {null};
+        Produk produk = produkByKode.computeIfPresent(kode, (k, p) -> {
+            p.setStokMinimum(stokMinimum);
+            statusLama[0] = sinkronkanIndeks(k, p);
+            statusBaru[0] = p.getStatusStok();
+            return p;
+        });
+        if (produk == null) {
+            return false;
+        }
+        beritahuPendengar(produk, statusLama[0], statusBaru[0]);
+        return true;
+    }
+
+    // O(1): dibaca dari total berjalan, bukan dihitung ulang
+    @Override
+    public double hitungTotalNilai() {
+        return totalNilaiAktif.sum();
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        return (int) totalStokAktif.sum();
+    }
+
+    // Bandingkan total berjalan dengan hitung ulang penuh (untuk deteksi drift)
+    public boolean isAgregatKonsisten(double toleransiNilai) {
+        return RepositoryProduk.super.hitungTotalStok() == hitungTotalStok()
+                && Math.abs(RepositoryProduk.super.hitungTotalNilai() - hitungTotalNilai()) <= toleransiNilai;
+    }
+
+    // Set ulang indeks dan total berjalan dari keadaan produk sekarang; panggil saat tidak ada penulisan lain
+    public void hitungUlangAgregat() {
+        for (String kode : produkByKode.keySet()) {
+            produkByKode.computeIfPresent(kode, (k, produk) -> {
+                sinkronkanIndeks(k, produk);
+                return produk;
+            });
+            sinkronkanNama(kode);
+        }
+        totalStokAktif.reset();
+        totalNilaiAktif.reset();
+        for (Terindeks catatan : terindeks.values()) {
+            totalStokAktif.add(catatan.stokAktif);
+            totalNilaiAktif.add(catatan.nilaiAktif);
+        }
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return new ArrayList<>(produkByKode.values());
+    }
+
+    // Iterasi langsung di map (weakly consistent), tanpa menyalin semua produk
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        produkByKode.values().forEach(aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        if (kategori == null) {
+            return;
+        }
+        Set<String> kodeSet = indeksKategori.get(kategori);
+        if (kodeSet != null) {
+            kirimProduk(kodeSet, aksi);
+        }
+    }
+
+    @Override
+    public void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        if (status != null) {
+            kirimProduk(indeksStatus.get(status), aksi);
+        }
+    }
+
+    public int jumlahProduk() {
+        return produkByKode.size();
+    }
+
+    // Dipanggil setelah compute selesai supaya indeks nama tidak diperbarui di bawah lock bin map
+    // produk. Nama dibaca ulang dari catatan terindeks di dalam IndeksNama, jadi dua penyimpanan
+    // kode yang sama yang selesai dengan urutan tertukar tetap berakhir di nama terbaru
+    private void sinkronkanNama(String kode) {
+        indeksNama.perbarui(kode, () -> {
+            Terindeks catatan = terindeks.get(kode);
+            return catatan != null ? catatan.nama : null;
+        });
+    }
+
+    private void beritahuPendengar(Produk produk, StatusStok lama, StatusStok baru) {
+        if (lama == baru) {
+            return;
+        }
+        for (PendengarStatusStok pendengar : pendengarStatus) {
+            pendengar.statusBerubah(produk, lama, baru);
+        }
+    }
+
+    // Samakan indeks dan total berjalan untuk satu kode dengan keadaan produk (null = dihapus).
+    // Dipanggil di dalam compute untuk kode yang sama; mengembalikan status yang tadinya terindeks.
+    // Indeks nama tidak diperbarui di sini, lihat sinkronkanNama
+    private StatusStok sinkronkanIndeks(String kode, Produk produk) {
+        Terindeks baru = produk != null ? new Terindeks(produk) : null;
+        Terindeks lama = baru != null ? terindeks.put(kode, baru) : terindeks.remove(kode);
+        StatusStok statusLama = lama != null ? lama.status : null;
+        StatusStok statusBaru = baru != null ? baru.status : null;
+        if (statusLama != statusBaru) {
+            if (statusLama != null) {
+                indeksStatus.get(statusLama).remove(kode);
+            }
+            if (statusBaru != null) {
+                indeksStatus.get(statusBaru).add(kode);
+            }
+        }
+        String kategoriLama = lama != null ? lama.kategori : null;
+        String kategoriBaru = baru != null ? baru.kategori : null;
+        if (!Objects.equals(kategoriLama, kategoriBaru)) {
+            if (kategoriLama != null) {
+                // Hapus entri indeks yang sudah kosong supaya map tidak terus membesar
+                indeksKategori.computeIfPresent(kategoriLama, (k, kodeSet) -> {
+                    kodeSet.remove(kode);
+                    return kodeSet.isEmpty() ? null : kodeSet;
+                });
+            }
+            if (kategoriBaru != null) {
+                // Di dalam compute supaya tidak balapan dengan penghapusan entri kosong
+                indeksKategori.compute(kategoriBaru, (k, kodeSet) -> {
+                    Set<String> hasil = kodeSet != null ? kodeSet : ConcurrentHashMap.newKeySet();
+                    hasil.add(kode);
+                    return hasil;
+                });
+            }
+        }
+        long selisihStok = (baru != null ? baru.stokAktif : 0) - (lama != null ? lama.stokAktif : 0);
+        double selisihNilai = (baru != null ? baru.nilaiAktif : 0) - (lama != null ? lama.nilaiAktif : 0);
+        if (selisihStok != 0) {
+            totalStokAktif.add(selisihStok);
+        }
+        if (selisihNilai != 0) {
+            totalNilaiAktif.add(selisihNilai);
+        }
+        return statusLama;
+    }
+
+    private void ambilProduk(Collection<String> kodeSet, List<Produk> hasil) {
+        kirimProduk(kodeSet, hasil::add);
+    }
+
+    private void kirimProduk(Collection<String> kodeSet, Consumer<? super Produk> aksi) {
+        for (String kode : kodeSet) {
+            Produk produk = produkByKode.get(kode);
+            if (produk != null) {
+                aksi.accept(produk);
+            }
+        }
+    }
+
+    // Salinan nilai yang sedang tercatat di indeks dan total berjalan untuk satu produk
+    private static final class Terindeks {
+        final String kategori;
+        final String nama;
+        final StatusStok status;
+        final long stokAktif;
+        final double nilaiAktif;
+
+        Terindeks(Produk produk) {
+            this.kategori = produk.getKategori();
+            this.nama = produk.getNama();
+            this.status = produk.getStatusStok();
+            this.stokAktif = produk.isAktif() ? produk.getStok() : 0;
+            this.nilaiAktif = produk.isAktif() ? produk.getHarga() * produk.getStok() : 0;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Decorator yang menyimpan salinan kolom angka produk dalam array primitif paralel
+ * (structure-of-arrays): harga, stok, stok minimum dan bit aktif per baris.
+ * Total nilai, total stok dan query stok menipis/habis dihitung dengan loop rapat di array
+ * tersebut, tanpa mengikuti pointer ke setiap objek Produk.
+ * <p>
+ * Kategori disimpan sebagai id dari {@link KamusKategori}, ditambah satu bitmap baris per
+ * kategori, sehingga filter kategori dan total per kategori menjadi operasi bitmap.
+ * <p>
+ * Setiap penulisan lewat decorator menyalin ulang baris dari keadaan terbaru di delegate,
+ * jadi penulisan paralel tetap berakhir konsisten. Perubahan yang langsung ke objek Produk
+ * (tidak lewat repository) tidak terlihat di kolom sampai produk itu ditulis lagi.
+ */
+public class RepositoryProdukKolom implements RepositoryProduk {
+    private static final int KAPASITAS_AWAL = 16;
+
+    private final RepositoryProduk delegate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> indeksByKode = new HashMap<>();
+    private String[] kode = new String[KAPASITAS_AWAL];
+    private double[] harga = new double[KAPASITAS_AWAL];
+    private int[] stok = new int[KAPASITAS_AWAL];
+    private int[] stokMinimum = new int[KAPASITAS_AWAL];
+    private int[] idKategori = new int[KAPASITAS_AWAL];
+    private final BitSet aktif = new BitSet();
+    // Bitmap baris per id kategori
+    private final List<BitSet> barisKategori = new ArrayList<>();
+    private final KamusKategori kamusKategori;
+    private int jumlah;
+
+    public RepositoryProdukKolom(RepositoryProduk delegate) {
+        this(delegate, new KamusKategori());
+    }
+
+    public RepositoryProdukKolom(RepositoryProduk delegate, KamusKategori kamusKategori) {
+        this.delegate = delegate;
+        this.kamusKategori = kamusKategori;
+        for (Produk produk : delegate.cariSemua()) {
+            sinkronkan(produk.getKode());
+        }
+    }
+
+    public KamusKategori getKamusKategori() {
+        return kamusKategori;
+    }
+
+    public int jumlahProduk() {
+        lock.readLock().lock();
+        try {
+            return jumlah;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public double hitungTotalNilai() {
+        lock.readLock().lock();
+        try {
+            double total = 0;
+            for (int i = aktif.nextSetBit(0); i >= 0; i = aktif.nextSetBit(i + 1)) {
+                total += harga[i] * stok[i];
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (int i = aktif.nextSetBit(0); i >= 0; i = aktif.nextSetBit(i + 1)) {
+                total += stok[i];
+            }
+            return (int) total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Jumlah produk (aktif maupun tidak) dengan stok di bawah ambang
+    public int hitungJumlahStokDiBawah(int ambang) {
+        lock.readLock().lock();
+        try {
+            int hasil = 0;
+            for (int i = 0; i < jumlah; i++) {
+                hasil += stok[i] < ambang ? 1 : 0;
+            }
+            return hasil;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        List<String> cocok = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < jumlah; i++) {
+                if (stok[i] > 0 && stok[i] <= stokMinimum[i]) {
+                    cocok.add(kode[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ambilProduk(cocok);
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        List<String> cocok = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < jumlah; i++) {
+                if (stok[i] <= 0) {
+                    cocok.add(kode[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ambilProduk(cocok);
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        List<String> cocok = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet baris = bitmapKategori(kamusKategori.cariId(kategori));
+            for (int i = baris.nextSetBit(0); i >= 0; i = baris.nextSetBit(i + 1)) {
+                cocok.add(kode[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ambilProduk(cocok);
+    }
+
+    // Total nilai produk aktif di satu kategori: irisan bitmap kategori dan bitmap aktif
+    public double hitungTotalNilai(String kategori) {
+        lock.readLock().lock();
+        try {
+            BitSet baris = (BitSet) bitmapKategori(kamusKategori.cariId(kategori)).clone();
+            baris.and(aktif);
+            double total = 0;
+            for (int i = baris.nextSetBit(0); i >= 0; i = baris.nextSetBit(i + 1)) {
+                total += harga[i] * stok[i];
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int hitungTotalStok(String kategori) {
+        lock.readLock().lock();
+        try {
+            BitSet baris = (BitSet) bitmapKategori(kamusKategori.cariId(kategori)).clone();
+            baris.and(aktif);
+            long total = 0;
+            for (int i = baris.nextSetBit(0); i >= 0; i = baris.nextSetBit(i + 1)) {
+                total += stok[i];
+            }
+            return (int) total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Total nilai produk aktif untuk semua kategori dalam satu kali pindai, dengan nama kategori
+    // sebagai kunci: nama unik di kamus, sedangkan idKategori (dasar equals Kategori) bisa bentrok
+    // antara kategori yang didaftarkan dan yang dibuat otomatis
+    public Map<String, Double> hitungTotalNilaiPerKategori() {
+        lock.readLock().lock();
+        try {
+            double[] total = new double[kamusKategori.jumlah()];
+            for (int i = aktif.nextSetBit(0); i >= 0; i = aktif.nextSetBit(i + 1)) {
+                int id = idKategori[i];
+                if (id != KamusKategori.TIDAK_ADA && id < total.length) {
+                    total[id] += harga[i] * stok[i];
+                }
+            }
+            Map<String, Double> hasil = new LinkedHashMap<>();
+            for (int id = 0; id < total.length; id++) {
+                if (!bitmapKategori(id).isEmpty()) {
+                    hasil.put(kamusKategori.getNama(id), total[id]);
+                }
+            }
+            return hasil;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet bitmapKategori(int id) {
+        return id >= 0 && id < barisKategori.size() ? barisKategori.get(id) : new BitSet(0);
+    }
+
+    private void pindahKategori(int baris, int idLama, int idBaru) {
+        if (idLama == idBaru) {
+            return;
+        }
+        if (idLama != KamusKategori.TIDAK_ADA) {
+            barisKategori.get(idLama).clear(baris);
+        }
+        if (idBaru != KamusKategori.TIDAK_ADA) {
+            while (barisKategori.size() <= idBaru) {
+                barisKategori.add(new BitSet());
+            }
+            barisKategori.get(idBaru).set(baris);
+        }
+        idKategori[baris] = idBaru;
+    }
+
+    private List<Produk> ambilProduk(List<String> daftarKode) {
+        List<Produk> hasil = new ArrayList<>(daftarKode.size());
+        for (String k : daftarKode) {
+            delegate.cariByKode(k).ifPresent(hasil::add);
+        }
+        return hasil;
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        boolean berhasil = delegate.simpan(produk);
+        if (berhasil) {
+            sinkronkan(produk.getKode());
+        }
+        return berhasil;
+    }
+
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        int tersimpan = delegate.simpanSemua(daftarProduk);
+        for (Produk produk : daftarProduk) {
+            if (produk != null && produk.getKode() != null) {
+                sinkronkan(produk.getKode());
+            }
+        }
+        return tersimpan;
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        boolean berhasil = delegate.hapus(kode);
+        if (berhasil) {
+            sinkronkan(kode);
+        }
+        return berhasil;
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        return sinkronkanJika(delegate.updateStok(kode, stokBaru), kode);
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        return sinkronkanJika(delegate.kurangiStokJikaCukup(kode, jumlah), kode);
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        return sinkronkanJika(delegate.tambahStok(kode, jumlah), kode);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        return sinkronkanJika(delegate.kembalikanStok(kode, jumlah), kode);
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        return sinkronkanJika(delegate.updateAktif(kode, aktif), kode);
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        return sinkronkanJika(delegate.updateStokMinimum(kode, stokMinimum), kode);
+    }
+
+    private boolean sinkronkanJika(boolean berhasil, String kode) {
+        if (berhasil) {
+            sinkronkan(kode);
+        }
+        return berhasil;
+    }
+
+    // Salin ulang baris dari keadaan terbaru di delegate; sinkronisasi terakhir selalu menang
+    private void sinkronkan(String kodeProduk) {
+        lock.writeLock().lock();
+        try {
+            Optional<Produk> terbaru = delegate.cariByKode(kodeProduk);
+            Integer baris = indeksByKode.get(kodeProduk);
+            if (terbaru.isEmpty()) {
+                if (baris != null) {
+                    hapusBaris(baris);
+                }
+                return;
+            }
+            if (baris == null) {
+                baris = jumlah++;
+                pastikanKapasitas(jumlah);
+                kode[baris] = kodeProduk;
+                idKategori[baris] = KamusKategori.TIDAK_ADA;
+                indeksByKode.put(kodeProduk, baris);
+            }
+            Produk produk = terbaru.get();
+            pindahKategori(baris, idKategori[baris], kamusKategori.idUntuk(produk.getKategori()));
+            harga[baris] = produk.getHarga();
+            stok[baris] = produk.getStok();
+            stokMinimum[baris] = produk.getStokMinimum();
+            aktif.set(baris, produk.isAktif());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Pindahkan baris terakhir ke posisi yang dihapus supaya array tetap rapat
+    private void hapusBaris(int baris) {
+        int terakhir = --jumlah;
+        indeksByKode.remove(kode[baris]);
+        pindahKategori(baris, idKategori[baris], KamusKategori.TIDAK_ADA);
+        if (baris != terakhir) {
+            int idTerakhir = idKategori[terakhir];
+            pindahKategori(terakhir, idTerakhir, KamusKategori.TIDAK_ADA);
+            pindahKategori(baris, KamusKategori.TIDAK_ADA, idTerakhir);
+            kode[baris] = kode[terakhir];
+            harga[baris] = harga[terakhir];
+            stok[baris] = stok[terakhir];
+            stokMinimum[baris] = stokMinimum[terakhir];
+            aktif.set(baris, aktif.get(terakhir));
+            indeksByKode.put(kode[baris], baris);
+        }
+        kode[terakhir] = null;
+        aktif.clear(terakhir);
+    }
+
+    private void pastikanKapasitas(int dibutuhkan) {
+        if (dibutuhkan <= kode.length) {
+            return;
+        }
+        int kapasitas = Math.max(dibutuhkan, kode.length * 2);
+        kode = Arrays.copyOf(kode, kapasitas);
+        harga = Arrays.copyOf(harga, kapasitas);
+        stok = Arrays.copyOf(stok, kapasitas);
+        stokMinimum = Arrays.copyOf(stokMinimum, kapasitas);
+        idKategori = Arrays.copyOf(idKategori, kapasitas);
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        return delegate.cariByKode(kode);
+    }
+
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        return delegate.cariByKodeBanyak(daftarKode);
+    }
+
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return delegate.mendukungPencarianBatch();
+    }
+
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        return delegate.cariByNama(nama);
+    }
+
+    @Override
+    public List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        return delegate.cariByNama(teks, mode, offset, batas);
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return delegate.cariSemua();
+    }
+
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        delegate.untukSetiap(aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByKategori(kategori, aksi);
+    }
+
+    @Override
+    public void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByStatusStok(status, aksi);
+    }
+
+    @Override
+    public List<Produk> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        return delegate.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+}
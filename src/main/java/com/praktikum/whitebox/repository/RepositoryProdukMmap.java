@@ -0,0 +1,741 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link RepositoryProduk} persisten yang menyimpan produk sebagai rekaman berukuran tetap
+ * ({@link TataLetakRekaman}) di file yang di-mmap.
+ * <p>
+ * Produk baru dan produk yang disimpan ulang selalu ditulis ke slot baru di akhir file (append-only);
+ * rekaman lama baru ditandai tombstone setelah rekaman penggantinya lengkap, jadi crash di tengah
+ * penimpaan tidak merusak produk. Penghapusan hanya menandai byte status rekaman (tombstone),
+ * dan perubahan stok ditulis langsung 4 byte di tempat.
+ * Rekaman yang sudah dihapus dibuang oleh {@link #padatkan()}, yang juga dipanggil otomatis
+ * kalau lebih dari separuh rekaman adalah tombstone.
+ * Perubahan ada di page cache OS sampai {@link #flush()} atau {@link #close()} dipanggil.
+ * <p>
+ * Indeks kode ke slot berupa hash table open addressing di file kedua ({@code <file>.indeks})
+ * yang juga di-mmap dan di-probe langsung; setiap entri berisi hash kode dan nomor slot, dan
+ * kode rekaman hanya dibaca untuk memastikan hash yang cocok. Setelah {@link #close()} yang
+ * normal, header ditandai bersih, jadi pembukaan berikutnya hanya me-map kedua file tanpa
+ * memindai rekaman. Selama terbuka header ditandai kotor: setelah crash (atau kalau file indeks
+ * hilang atau bukan pasangannya) indeks dibangun ulang dengan memindai semua slot, yang berarti
+ * membaca seluruh file (640 byte per rekaman).
+ */
+public class RepositoryProdukMmap implements RepositoryProduk, Closeable {
+    private static final int MAGIC = 0x57425052; // "WBPR"
+    private static final int VERSI = 2;
+    // Versi 1 belum punya file indeks; dibuka dengan membangun indeks lalu ditulis sebagai versi 2
+    private static final int VERSI_TANPA_INDEKS = 1;
+    private static final int UKURAN_HEADER = 64;
+    private static final int POS_JUMLAH_SLOT = 8;
+    private static final int POS_JUMLAH_HIDUP = 12;
+    private static final int POS_BERSIH = 16;
+    private static final int POS_KAPASITAS_INDEKS = 20;
+    private static final int POS_TERISI_INDEKS = 24;
+    // Nilai acak yang sama di header dan file indeks, supaya file indeks dari pasangan lain tidak dipakai
+    private static final int POS_PENANDA = 32;
+    // 64K rekaman per segmen mmap (40 MB), supaya satu mapping jauh di bawah batas 2 GB
+    private static final int REKAMAN_PER_SEGMEN = 1 << 16;
+    private static final long UKURAN_SEGMEN = (long) REKAMAN_PER_SEGMEN * TataLetakRekaman.UKURAN;
+    private static final int MIN_TOMBSTONE_PADATKAN = 1024;
+    // Entri indeks: [hash kode int][slot + 1 int]; 0 = kosong, -1 = bekas entri yang dihapus
+    private static final int UKURAN_HEADER_INDEKS = 8;
+    private static final int UKURAN_ENTRI_INDEKS = 8;
+    private static final int KAPASITAS_INDEKS_AWAL = 1024;
+    private static final int KAPASITAS_INDEKS_MAKS = 1 << 27;
+    private static final int ENTRI_KOSONG = 0;
+    private static final int ENTRI_DIHAPUS = -1;
+
+    private final Path file;
+    private final Path fileIndeks;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private final List<MappedByteBuffer> segmen = new ArrayList<>();
+    private MappedByteBuffer indeks;
+    private int kapasitasIndeks;
+    // Entri indeks yang tidak kosong, termasuk bekas entri yang dihapus
+    private int terisiIndeks;
+    private int jumlahSlot;
+    private int jumlahHidup;
+    private boolean indeksDibangunUlang;
+
+    public RepositoryProdukMmap(Path file) throws IOException {
+        this.file = file;
+        this.fileIndeks = file.resolveSibling(file.getFileName() + ".indeks");
+        buka();
+    }
+
+    private void buka() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean baru = channel.size() == 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, UKURAN_HEADER);
+        int versi = header.getInt(4);
+        if (baru) {
+            header.putInt(0, MAGIC);
+            header.putInt(POS_JUMLAH_SLOT, 0);
+        } else if (header.getInt(0) != MAGIC || (versi != VERSI && versi != VERSI_TANPA_INDEKS)) {
+            channel.close();
+            throw new IOException("Bukan file repository produk yang valid: " + file);
+        }
+        jumlahSlot = header.getInt(POS_JUMLAH_SLOT);
+        segmen.clear();
+        indeks = null;
+        if (jumlahSlot > 0) {
+            // Semua segmen di-map sekarang, supaya pembaca di bawah read lock tidak perlu me-map
+            buffer(jumlahSlot - 1);
+        }
+        boolean bersih = !baru && versi == VERSI && header.getInt(POS_BERSIH) == 1 && bukaIndeks();
+        header.putInt(4, VERSI);
+        // Kotor sampai close berikutnya menyimpan semuanya; crash sebelum itu membangun ulang indeks
+        header.putInt(POS_BERSIH, 0);
+        header.force();
+        indeksDibangunUlang = !bersih;
+        if (bersih) {
+            jumlahHidup = header.getInt(POS_JUMLAH_HIDUP);
+        } else {
+            bangunUlangIndeks();
+        }
+    }
+
+    // true kalau file indeks ada dan memang pasangan header ini
+    private boolean bukaIndeks() throws IOException {
+        int kapasitas = header.getInt(POS_KAPASITAS_INDEKS);
+        if (Integer.bitCount(kapasitas) != 1 || kapasitas > KAPASITAS_INDEKS_MAKS
+                || !Files.exists(fileIndeks) || Files.size(fileIndeks) != ukuranFileIndeks(kapasitas)) {
+            return false;
+        }
+        MappedByteBuffer dipetakan = petakanIndeks(fileIndeks, kapasitas);
+        if (dipetakan.getLong(0) != header.getLong(POS_PENANDA)) {
+            return false;
+        }
+        indeks = dipetakan;
+        kapasitasIndeks = kapasitas;
+        terisiIndeks = header.getInt(POS_TERISI_INDEKS);
+        return true;
+    }
+
+    // Pindai semua slot. Kode yang HIDUP di dua slot berarti crash setelah rekaman pengganti
+    // ditulis, sebelum rekaman lama ditandai: yang baru (slot lebih besar) menang
+    private void bangunUlangIndeks() throws IOException {
+        buatIndeks(kapasitasUntuk(jumlahSlot));
+        jumlahHidup = 0;
+        for (int slot = 0; slot < jumlahSlot; slot++) {
+            MappedByteBuffer buffer = buffer(slot);
+            int posisi = posisi(slot);
+            if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP) {
+                int lama = pasang(TataLetakRekaman.bacaKode(buffer, posisi), slot);
+                if (lama >= 0) {
+                    TataLetakRekaman.tandaiDihapus(buffer(lama), posisi(lama));
+                } else {
+                    jumlahHidup++;
+                }
+            }
+        }
+        header.putInt(POS_JUMLAH_HIDUP, jumlahHidup);
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        if (!TataLetakRekaman.muat(produk)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            simpanTanpaLock(produk);
+            padatkanJikaPerlu();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Satu write lock untuk seluruh batch
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        int jumlah = 0;
+        lock.writeLock().lock();
+        try {
+            for (Produk produk : daftarProduk) {
+                if (TataLetakRekaman.muat(produk)) {
+                    simpanTanpaLock(produk);
+                    jumlah++;
+                }
+            }
+            padatkanJikaPerlu();
+            return jumlah;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void simpanTanpaLock(Produk produk) throws IOException {
+        int slot = jumlahSlot;
+        TataLetakRekaman.tulis(buffer(slot), posisi(slot), produk);
+        // Jumlah slot di header dinaikkan setelah rekaman lengkap ditulis
+        jumlahSlot++;
+        header.putInt(POS_JUMLAH_SLOT, jumlahSlot);
+        int lama = pasang(produk.getKode(), slot);
+        if (lama >= 0) {
+            // Rekaman lama tetap utuh sampai penggantinya terlihat di header
+            TataLetakRekaman.tandaiDihapus(buffer(lama), posisi(lama));
+        } else {
+            jumlahHidup++;
+            header.putInt(POS_JUMLAH_HIDUP, jumlahHidup);
+        }
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        lock.readLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Semua kode dicari di bawah satu read lock
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        Map<String, Produk> hasil = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String kode : daftarKode) {
+                int slot = cariSlot(kode);
+                if (slot >= 0 && !hasil.containsKey(kode)) {
+                    hasil.put(kode, TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+                }
+            }
+            return hasil;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return true;
+    }
+
+    // Awalan nama, tidak peka huruf besar/kecil (sama dengan RepositoryProdukInMemory)
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        if (nama == null || nama.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String awalan = nama.toLowerCase(Locale.ROOT);
+        return cari(slot -> {
+            String namaProduk = TataLetakRekaman.bacaNama(buffer(slot), posisi(slot));
+            return namaProduk != null && namaProduk.toLowerCase(Locale.ROOT).startsWith(awalan);
+        });
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        if (kategori == null) {
+            return new ArrayList<>();
+        }
+        return cari(slot -> kategori.equals(TataLetakRekaman.bacaKategori(buffer(slot), posisi(slot))));
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return cari(slot -> {
+            int stok = TataLetakRekaman.bacaStok(buffer(slot), posisi(slot));
+            return stok > 0 && stok <= TataLetakRekaman.bacaStokMinimum(buffer(slot), posisi(slot));
+        });
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return cari(slot -> TataLetakRekaman.bacaStok(buffer(slot), posisi(slot)) == 0);
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        lock.writeLock().lock();
+        try {
+            int slot = hapusDariIndeks(kode);
+            if (slot < 0) {
+                return false;
+            }
+            TataLetakRekaman.tandaiDihapus(buffer(slot), posisi(slot));
+            jumlahHidup--;
+            header.putInt(POS_JUMLAH_HIDUP, jumlahHidup);
+            padatkanJikaPerlu();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Tulis 4 byte stok langsung di rekaman
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return false;
+            }
+            TataLetakRekaman.tulisStok(buffer(slot), posisi(slot), stokBaru);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return false;
+            }
+            MappedByteBuffer buffer = buffer(slot);
+            int posisi = posisi(slot);
+            int stok = TataLetakRekaman.bacaStok(buffer, posisi);
+            if (!TataLetakRekaman.isAktif(buffer, posisi) || stok < jumlah) {
+                return false;
+            }
+            TataLetakRekaman.tulisStok(buffer, posisi, stok - jumlah);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, true);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, false);
+    }
+
+    private boolean tambahStok(String kode, int jumlah, boolean wajibAktif) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return false;
+            }
+            MappedByteBuffer buffer = buffer(slot);
+            int posisi = posisi(slot);
+            int stok = TataLetakRekaman.bacaStok(buffer, posisi);
+            if ((wajibAktif && !TataLetakRekaman.isAktif(buffer, posisi)) || stok > Integer.MAX_VALUE - jumlah) {
+                return false;
+            }
+            TataLetakRekaman.tulisStok(buffer, posisi, stok + jumlah);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return false;
+            }
+            TataLetakRekaman.tulisAktif(buffer(slot), posisi(slot), aktif);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kode);
+            if (slot < 0) {
+                return false;
+            }
+            TataLetakRekaman.tulisStokMinimum(buffer(slot), posisi(slot), stokMinimum);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return cari(slot -> true);
+    }
+
+    // Rekaman dibaca dari file satu per satu saat dikirim; aksi berjalan di bawah read lock,
+    // jadi aksi tidak boleh menulis ke repository ini
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        pindai(slot -> true, aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        if (kategori != null) {
+            pindai(slot -> kategori.equals(TataLetakRekaman.bacaKategori(buffer(slot), posisi(slot))), aksi);
+        }
+    }
+
+    // Dihitung langsung dari field di file, tanpa membuat objek Produk
+    @Override
+    public double hitungTotalNilai() {
+        lock.readLock().lock();
+        try {
+            double total = 0;
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                MappedByteBuffer buffer = buffer(slot);
+                int posisi = posisi(slot);
+                if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP
+                        && TataLetakRekaman.isAktif(buffer, posisi)) {
+                    total += TataLetakRekaman.bacaHarga(buffer, posisi) * TataLetakRekaman.bacaStok(buffer, posisi);
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                MappedByteBuffer buffer = buffer(slot);
+                int posisi = posisi(slot);
+                if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP
+                        && TataLetakRekaman.isAktif(buffer, posisi)) {
+                    total += TataLetakRekaman.bacaStok(buffer, posisi);
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int jumlahProduk() {
+        lock.readLock().lock();
+        try {
+            return jumlahHidup;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tulis ulang hanya rekaman yang masih hidup ke file baru, lalu ganti file lama
+    public void padatkan() throws IOException {
+        lock.writeLock().lock();
+        try {
+            padatkanTanpaLock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void padatkanJikaPerlu() throws IOException {
+        int jumlahTombstone = jumlahSlot - jumlahHidup;
+        if (jumlahTombstone >= MIN_TOMBSTONE_PADATKAN && jumlahTombstone * 2 > jumlahSlot) {
+            padatkanTanpaLock();
+        }
+    }
+
+    private void padatkanTanpaLock() throws IOException {
+        Path sementara = file.resolveSibling(file.getFileName() + ".padat");
+        Path indeksSementara = sementara.resolveSibling(sementara.getFileName() + ".indeks");
+        Files.deleteIfExists(sementara);
+        Files.deleteIfExists(indeksSementara);
+        try (RepositoryProdukMmap baru = new RepositoryProdukMmap(sementara)) {
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                MappedByteBuffer buffer = buffer(slot);
+                int posisi = posisi(slot);
+                if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP) {
+                    baru.simpan(TataLetakRekaman.baca(buffer, posisi));
+                }
+            }
+        }
+        channel.close();
+        // Indeks dulu: crash di antara kedua move menyisakan file lama yang bertanda kotor,
+        // dan penanda yang tidak cocok membuat indeksnya dibangun ulang
+        Files.move(indeksSementara, fileIndeks, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(sementara, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        buka();
+    }
+
+    public void flush() {
+        lock.readLock().lock();
+        try {
+            for (MappedByteBuffer buffer : segmen) {
+                buffer.force();
+            }
+            indeks.force();
+            header.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel.isOpen()) {
+                for (MappedByteBuffer buffer : segmen) {
+                    buffer.force();
+                }
+                indeks.force();
+                // Rekaman dan indeks sudah di disk; baru sekarang header boleh ditandai bersih
+                header.putInt(POS_BERSIH, 1);
+                header.force();
+                channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Produk> cari(Predicate<Integer> cocok) {
+        List<Produk> hasil = new ArrayList<>();
+        pindai(cocok, hasil::add);
+        return hasil;
+    }
+
+    private void pindai(Predicate<Integer> cocok, Consumer<? super Produk> aksi) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                if (TataLetakRekaman.status(buffer(slot), posisi(slot)) == TataLetakRekaman.HIDUP
+                        && cocok.test(slot)) {
+                    aksi.accept(TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Untuk test: apakah pembukaan terakhir harus memindai rekaman untuk membangun indeks
+    boolean isIndeksDibangunUlang() {
+        lock.readLock().lock();
+        try {
+            return indeksDibangunUlang;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Slot rekaman HIDUP untuk kode, atau -1
+    private int cariSlot(String kode) {
+        if (kode == null) {
+            return -1;
+        }
+        int hash = hash(kode);
+        int mask = kapasitasIndeks - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int posisi = posisiEntri(i);
+            int nilai = indeks.getInt(posisi + 4);
+            if (nilai == ENTRI_KOSONG) {
+                return -1;
+            }
+            if (nilai > 0 && indeks.getInt(posisi) == hash && kodeSama(nilai - 1, kode)) {
+                return nilai - 1;
+            }
+        }
+    }
+
+    // Pasang kode ke slot; mengembalikan slot lama kode itu, atau -1 kalau kode baru
+    private int pasang(String kode, int slot) throws IOException {
+        int hash = hash(kode);
+        int mask = kapasitasIndeks - 1;
+        int tujuan = -1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int posisi = posisiEntri(i);
+            int nilai = indeks.getInt(posisi + 4);
+            if (nilai == ENTRI_KOSONG) {
+                if (tujuan < 0) {
+                    tujuan = posisi;
+                    terisiIndeks++;
+                    header.putInt(POS_TERISI_INDEKS, terisiIndeks);
+                }
+                break;
+            }
+            if (nilai == ENTRI_DIHAPUS) {
+                if (tujuan < 0) {
+                    tujuan = posisi;
+                }
+            } else if (indeks.getInt(posisi) == hash && kodeSama(nilai - 1, kode)) {
+                indeks.putInt(posisi + 4, slot + 1);
+                return nilai - 1;
+            }
+        }
+        indeks.putInt(tujuan, hash);
+        indeks.putInt(tujuan + 4, slot + 1);
+        // Beban maksimal 75% termasuk bekas hapus, jadi probe selalu menemukan entri kosong
+        if (terisiIndeks * 4L > kapasitasIndeks * 3L) {
+            buatIndeks(kapasitasUntuk(jumlahHidup + 1));
+        }
+        return -1;
+    }
+
+    // Lepas kode dari indeks; mengembalikan slotnya, atau -1 kalau tidak ada
+    private int hapusDariIndeks(String kode) {
+        if (kode == null) {
+            return -1;
+        }
+        int hash = hash(kode);
+        int mask = kapasitasIndeks - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int posisi = posisiEntri(i);
+            int nilai = indeks.getInt(posisi + 4);
+            if (nilai == ENTRI_KOSONG) {
+                return -1;
+            }
+            if (nilai > 0 && indeks.getInt(posisi) == hash && kodeSama(nilai - 1, kode)) {
+                indeks.putInt(posisi + 4, ENTRI_DIHAPUS);
+                return nilai - 1;
+            }
+        }
+    }
+
+    // File indeks baru ditulis di samping lalu dipindah ke tempatnya, supaya mapping lama tidak
+    // ikut terpotong. Entri hidup dari indeks lama disalin lewat hash tersimpan tanpa membaca rekaman
+    private void buatIndeks(int kapasitas) throws IOException {
+        Path baru = fileIndeks.resolveSibling(fileIndeks.getFileName() + ".baru");
+        Files.deleteIfExists(baru);
+        MappedByteBuffer lama = indeks;
+        int kapasitasLama = kapasitasIndeks;
+        long penanda = ThreadLocalRandom.current().nextLong();
+        indeks = petakanIndeks(baru, kapasitas);
+        indeks.putLong(0, penanda);
+        kapasitasIndeks = kapasitas;
+        terisiIndeks = 0;
+        if (lama != null) {
+            int mask = kapasitas - 1;
+            for (int j = 0; j < kapasitasLama; j++) {
+                int posisiLama = posisiEntri(j);
+                int nilai = lama.getInt(posisiLama + 4);
+                if (nilai <= 0) {
+                    continue;
+                }
+                int hash = lama.getInt(posisiLama);
+                int i = hash & mask;
+                while (indeks.getInt(posisiEntri(i) + 4) != ENTRI_KOSONG) {
+                    i = (i + 1) & mask;
+                }
+                indeks.putInt(posisiEntri(i), hash);
+                indeks.putInt(posisiEntri(i) + 4, nilai);
+                terisiIndeks++;
+            }
+        }
+        Files.move(baru, fileIndeks, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        header.putInt(POS_KAPASITAS_INDEKS, kapasitas);
+        header.putInt(POS_TERISI_INDEKS, terisiIndeks);
+        header.putLong(POS_PENANDA, penanda);
+    }
+
+    // Kapasitas pangkat dua dengan beban paling banyak 50% untuk jumlah kode
+    private static int kapasitasUntuk(int jumlahKode) {
+        int kapasitas = KAPASITAS_INDEKS_AWAL;
+        while (kapasitas < jumlahKode * 2L) {
+            if (kapasitas == KAPASITAS_INDEKS_MAKS) {
+                throw new IllegalStateException("Indeks kode penuh: " + jumlahKode + " produk");
+            }
+            kapasitas <<= 1;
+        }
+        return kapasitas;
+    }
+
+    private static MappedByteBuffer petakanIndeks(Path path, int kapasitas) throws IOException {
+        // Mapping tetap berlaku setelah channel ditutup; map melebihi ukuran file mengisi nol (kosong)
+        try (FileChannel channelIndeks = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channelIndeks.map(FileChannel.MapMode.READ_WRITE, 0, ukuranFileIndeks(kapasitas));
+        }
+    }
+
+    private static long ukuranFileIndeks(int kapasitas) {
+        return UKURAN_HEADER_INDEKS + (long) kapasitas * UKURAN_ENTRI_INDEKS;
+    }
+
+    private static int posisiEntri(int i) {
+        return UKURAN_HEADER_INDEKS + i * UKURAN_ENTRI_INDEKS;
+    }
+
+    private boolean kodeSama(int slot, String kode) {
+        return kode.equals(TataLetakRekaman.bacaKode(buffer(slot), posisi(slot)));
+    }
+
+    private static int hash(String kode) {
+        int h = kode.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Segmen di-map saat pertama kali dibutuhkan (hanya terjadi di bawah write lock);
+    // file ikut membesar saat segmen baru di-map
+    private MappedByteBuffer buffer(int slot) {
+        int nomor = slot / REKAMAN_PER_SEGMEN;
+        try {
+            while (nomor >= segmen.size()) {
+                long awal = UKURAN_HEADER + segmen.size() * UKURAN_SEGMEN;
+                segmen.add(channel.map(FileChannel.MapMode.READ_WRITE, awal, UKURAN_SEGMEN));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segmen.get(nomor);
+    }
+
+    private static int posisi(int slot) {
+        return (slot % REKAMAN_PER_SEGMEN) * TataLetakRekaman.UKURAN;
+    }
+}
@@ -0,0 +1,453 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link RepositoryProduk} yang menyimpan semua rekaman produk di luar heap, dalam potongan
+ * direct ByteBuffer dengan tata letak {@link TataLetakRekaman}.
+ * <p>
+ * Indeks kode juga berada di luar heap: tabel hash open addressing (linear probing) berisi
+ * nomor slot, dan kode dibandingkan langsung dengan byte di rekaman. Slot yang dihapus
+ * disambung menjadi daftar slot kosong lewat field stok-nya dan dipakai lagi oleh simpan
+ * berikutnya. Jadi heap hanya berisi daftar potongan, berapa pun jumlah produknya.
+ * <p>
+ * Produk yang dikembalikan adalah salinan; mengubahnya tidak mengubah isi repository.
+ */
+public class RepositoryProdukOffHeap implements RepositoryProduk {
+    // 4096 rekaman per potongan (2,5 MB)
+    private static final int REKAMAN_PER_POTONGAN = 1 << 12;
+    private static final int KAPASITAS_INDEKS_AWAL = 1 << 10;
+    private static final int TIDAK_ADA = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> potongan = new ArrayList<>();
+    // Isi indeks: slot + 1, nol berarti kosong
+    private ByteBuffer indeks = ByteBuffer.allocateDirect(KAPASITAS_INDEKS_AWAL * 4);
+    private int kapasitasIndeks = KAPASITAS_INDEKS_AWAL;
+    private int jumlahSlot;
+    private int jumlahProduk;
+    private int slotKosongPertama = TIDAK_ADA;
+
+    @Override
+    public boolean simpan(Produk produk) {
+        if (!TataLetakRekaman.muat(produk)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            simpanTanpaLock(produk);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Satu write lock untuk seluruh batch
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        int jumlah = 0;
+        lock.writeLock().lock();
+        try {
+            for (Produk produk : daftarProduk) {
+                if (TataLetakRekaman.muat(produk)) {
+                    simpanTanpaLock(produk);
+                    jumlah++;
+                }
+            }
+            return jumlah;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        if (kode == null) {
+            return Optional.empty();
+        }
+        byte[] kodeBytes = TataLetakRekaman.bytes(kode);
+        lock.readLock().lock();
+        try {
+            int slot = cariSlot(kodeBytes);
+            if (slot == TIDAK_ADA) {
+                return Optional.empty();
+            }
+            return Optional.of(TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Semua kode dicari di bawah satu read lock
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        Map<String, Produk> hasil = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String kode : daftarKode) {
+                if (kode == null || hasil.containsKey(kode)) {
+                    continue;
+                }
+                int slot = cariSlot(TataLetakRekaman.bytes(kode));
+                if (slot != TIDAK_ADA) {
+                    hasil.put(kode, TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+                }
+            }
+            return hasil;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return true;
+    }
+
+    // Awalan nama, tidak peka huruf besar/kecil (sama dengan RepositoryProdukInMemory)
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        if (nama == null || nama.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String awalan = nama.toLowerCase(Locale.ROOT);
+        return cari(slot -> {
+            String namaProduk = TataLetakRekaman.bacaNama(buffer(slot), posisi(slot));
+            return namaProduk != null && namaProduk.toLowerCase(Locale.ROOT).startsWith(awalan);
+        });
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        if (kategori == null) {
+            return new ArrayList<>();
+        }
+        return cari(slot -> kategori.equals(TataLetakRekaman.bacaKategori(buffer(slot), posisi(slot))));
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return cari(slot -> {
+            int stok = TataLetakRekaman.bacaStok(buffer(slot), posisi(slot));
+            return stok > 0 && stok <= TataLetakRekaman.bacaStokMinimum(buffer(slot), posisi(slot));
+        });
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return cari(slot -> TataLetakRekaman.bacaStok(buffer(slot), posisi(slot)) == 0);
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        if (kode == null) {
+            return false;
+        }
+        byte[] kodeBytes = TataLetakRekaman.bytes(kode);
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kodeBytes);
+            if (slot == TIDAK_ADA) {
+                return false;
+            }
+            hapusIndeks(slot, TataLetakRekaman.hashKode(kodeBytes));
+            ByteBuffer buffer = buffer(slot);
+            int posisi = posisi(slot);
+            TataLetakRekaman.tandaiDihapus(buffer, posisi);
+            // Field stok slot yang dihapus menyimpan slot kosong berikutnya
+            TataLetakRekaman.tulisStok(buffer, posisi, slotKosongPertama);
+            slotKosongPertama = slot;
+            jumlahProduk--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        return ubah(kode, (buffer, posisi) -> {
+            TataLetakRekaman.tulisStok(buffer, posisi, stokBaru);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        return ubah(kode, (buffer, posisi) -> {
+            int stok = TataLetakRekaman.bacaStok(buffer, posisi);
+            if (!TataLetakRekaman.isAktif(buffer, posisi) || stok < jumlah) {
+                return false;
+            }
+            TataLetakRekaman.tulisStok(buffer, posisi, stok - jumlah);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, true);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        return tambahStok(kode, jumlah, false);
+    }
+
+    private boolean tambahStok(String kode, int jumlah, boolean wajibAktif) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        return ubah(kode, (buffer, posisi) -> {
+            int stok = TataLetakRekaman.bacaStok(buffer, posisi);
+            if ((wajibAktif && !TataLetakRekaman.isAktif(buffer, posisi)) || stok > Integer.MAX_VALUE - jumlah) {
+                return false;
+            }
+            TataLetakRekaman.tulisStok(buffer, posisi, stok + jumlah);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        return ubah(kode, (buffer, posisi) -> {
+            TataLetakRekaman.tulisAktif(buffer, posisi, aktif);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        return ubah(kode, (buffer, posisi) -> {
+            TataLetakRekaman.tulisStokMinimum(buffer, posisi, stokMinimum);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return cari(slot -> true);
+    }
+
+    // Salinan dibuat satu per satu saat dikirim; aksi berjalan di bawah read lock,
+    // jadi aksi tidak boleh menulis ke repository ini
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        pindai(slot -> true, aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        if (kategori != null) {
+            pindai(slot -> kategori.equals(TataLetakRekaman.bacaKategori(buffer(slot), posisi(slot))), aksi);
+        }
+    }
+
+    // Dihitung langsung dari field di buffer, tanpa membuat objek Produk
+    @Override
+    public double hitungTotalNilai() {
+        lock.readLock().lock();
+        try {
+            double total = 0;
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                ByteBuffer buffer = buffer(slot);
+                int posisi = posisi(slot);
+                if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP
+                        && TataLetakRekaman.isAktif(buffer, posisi)) {
+                    total += TataLetakRekaman.bacaHarga(buffer, posisi) * TataLetakRekaman.bacaStok(buffer, posisi);
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                ByteBuffer buffer = buffer(slot);
+                int posisi = posisi(slot);
+                if (TataLetakRekaman.status(buffer, posisi) == TataLetakRekaman.HIDUP
+                        && TataLetakRekaman.isAktif(buffer, posisi)) {
+                    total += TataLetakRekaman.bacaStok(buffer, posisi);
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int jumlahProduk() {
+        lock.readLock().lock();
+        try {
+            return jumlahProduk;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Total byte yang dialokasikan di luar heap (rekaman + indeks)
+    public long ukuranOffHeap() {
+        lock.readLock().lock();
+        try {
+            return (long) potongan.size() * REKAMAN_PER_POTONGAN * TataLetakRekaman.UKURAN + indeks.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private interface Pengubah {
+        boolean ubah(ByteBuffer buffer, int posisi);
+    }
+
+    private boolean ubah(String kode, Pengubah pengubah) {
+        if (kode == null) {
+            return false;
+        }
+        byte[] kodeBytes = TataLetakRekaman.bytes(kode);
+        lock.writeLock().lock();
+        try {
+            int slot = cariSlot(kodeBytes);
+            return slot != TIDAK_ADA && pengubah.ubah(buffer(slot), posisi(slot));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Produk> cari(IntPredicate cocok) {
+        List<Produk> hasil = new ArrayList<>();
+        pindai(cocok, hasil::add);
+        return hasil;
+    }
+
+    private void pindai(IntPredicate cocok, Consumer<? super Produk> aksi) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < jumlahSlot; slot++) {
+                if (TataLetakRekaman.status(buffer(slot), posisi(slot)) == TataLetakRekaman.HIDUP
+                        && cocok.test(slot)) {
+                    aksi.accept(TataLetakRekaman.baca(buffer(slot), posisi(slot)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void simpanTanpaLock(Produk produk) {
+        byte[] kode = TataLetakRekaman.bytes(produk.getKode());
+        int slot = cariSlot(kode);
+        if (slot == TIDAK_ADA) {
+            slot = ambilSlotKosong();
+            TataLetakRekaman.tulis(buffer(slot), posisi(slot), produk);
+            if ((jumlahProduk + 1) * 2 > kapasitasIndeks) {
+                perbesarIndeks();
+            }
+            masukkanIndeks(slot, TataLetakRekaman.hashKode(kode));
+            jumlahProduk++;
+        } else {
+            TataLetakRekaman.tulis(buffer(slot), posisi(slot), produk);
+        }
+    }
+
+    private int ambilSlotKosong() {
+        if (slotKosongPertama != TIDAK_ADA) {
+            int slot = slotKosongPertama;
+            slotKosongPertama = TataLetakRekaman.bacaStok(buffer(slot), posisi(slot));
+            return slot;
+        }
+        int slot = jumlahSlot++;
+        if (slot / REKAMAN_PER_POTONGAN >= potongan.size()) {
+            potongan.add(ByteBuffer.allocateDirect(REKAMAN_PER_POTONGAN * TataLetakRekaman.UKURAN));
+        }
+        return slot;
+    }
+
+    private int cariSlot(byte[] kode) {
+        int mask = kapasitasIndeks - 1;
+        for (int i = TataLetakRekaman.hashKode(kode) & mask; ; i = (i + 1) & mask) {
+            int isi = indeks.getInt(i * 4);
+            if (isi == 0) {
+                return TIDAK_ADA;
+            }
+            int slot = isi - 1;
+            if (TataLetakRekaman.kodeSama(buffer(slot), posisi(slot), kode)) {
+                return slot;
+            }
+        }
+    }
+
+    private void masukkanIndeks(int slot, int hash) {
+        int mask = kapasitasIndeks - 1;
+        int i = hash & mask;
+        while (indeks.getInt(i * 4) != 0) {
+            i = (i + 1) & mask;
+        }
+        indeks.putInt(i * 4, slot + 1);
+    }
+
+    // Hapus dengan menggeser mundur entri sesudahnya, jadi tidak perlu tombstone di indeks
+    private void hapusIndeks(int slot, int hash) {
+        int mask = kapasitasIndeks - 1;
+        int i = hash & mask;
+        while (indeks.getInt(i * 4) != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int isi = indeks.getInt(j * 4);
+            if (isi == 0) {
+                break;
+            }
+            int ideal = TataLetakRekaman.hashKode(buffer(isi - 1), posisi(isi - 1)) & mask;
+            boolean tetapDiTempat = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!tetapDiTempat) {
+                indeks.putInt(i * 4, isi);
+                i = j;
+            }
+        }
+        indeks.putInt(i * 4, 0);
+    }
+
+    private void perbesarIndeks() {
+        ByteBuffer lama = indeks;
+        int kapasitasLama = kapasitasIndeks;
+        kapasitasIndeks = kapasitasLama * 2;
+        indeks = ByteBuffer.allocateDirect(kapasitasIndeks * 4);
+        for (int i = 0; i < kapasitasLama; i++) {
+            int isi = lama.getInt(i * 4);
+            if (isi != 0) {
+                masukkanIndeks(isi - 1, TataLetakRekaman.hashKode(buffer(isi - 1), posisi(isi - 1)));
+            }
+        }
+    }
+
+    private ByteBuffer buffer(int slot) {
+        return potongan.get(slot / REKAMAN_PER_POTONGAN);
+    }
+
+    private static int posisi(int slot) {
+        return (slot % REKAMAN_PER_POTONGAN) * TataLetakRekaman.UKURAN;
+    }
+}
@@ -0,0 +1,302 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decorator {@link RepositoryProduk} yang mencatat setiap mutasi stok ke {@link LogStok} dan
+ * menunggu entrinya di-fsync sebelum mutasi diterapkan ke repository dasar (write-ahead).
+ * Kalau pencatatan gagal, repository dasar tidak berubah.
+ * <p>
+ * Yang dicatat adalah stok akhir (entri SET), bukan delta, jadi pemutaran ulang idempoten.
+ * Stok akhir dihitung dan diterapkan di bawah lock stripe kode tersebut, sehingga urutan di log
+ * sama dengan urutan penerapan. Mutasi ke kode yang sama menunggu fsync satu per satu, sedangkan
+ * mutasi ke kode berbeda tetap berbagi satu fsync lewat group commit LogStok. Stripe berupa
+ * {@link ReentrantLock}, bukan monitor synchronized, karena lock dipegang selama menunggu fsync:
+ * virtual thread yang menunggu di sini tidak menahan carrier thread-nya (JDK 21).
+ * Setelah crash, {@link LogStok#putarUlang} menerapkan ulang entri ke repository yang sudah
+ * berisi katalog dari {@link #checkpoint} terakhir. Hanya stok yang dicatat; katalog
+ * (simpan/hapus) harus disimpan oleh repository dasar. simpan dan simpanSemua tetap mencatat
+ * stok produk yang disimpan sebagai entri SET, supaya entri SET lama untuk kode itu tidak
+ * menimpa stok yang lebih baru saat replay.
+ */
+public class RepositoryProdukWal implements RepositoryProduk {
+    private static final int JUMLAH_STRIPE = 256;
+
+    private final RepositoryProduk delegate;
+    private final LogStok logStok;
+    // Menjaga urutan entri di log sama dengan urutan penerapan untuk kode yang sama
+    private final ReentrantLock[] stripe = new ReentrantLock[JUMLAH_STRIPE];
+
+    public RepositoryProdukWal(RepositoryProduk delegate, LogStok logStok) {
+        this.delegate = delegate;
+        this.logStok = logStok;
+        for (int i = 0; i < JUMLAH_STRIPE; i++) {
+            stripe[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean updateStok(String kode, int stokBaru) {
+        return catatLaluTerapkan(kode, produk -> stokBaru);
+    }
+
+    @Override
+    public boolean kurangiStokJikaCukup(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        return catatLaluTerapkan(kode, produk -> produk.isAktif() && produk.getStok() >= jumlah
+                ? produk.getStok() - jumlah : null);
+    }
+
+    @Override
+    public boolean tambahStok(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        return catatLaluTerapkan(kode, produk -> produk.isAktif() && produk.getStok() <= Integer.MAX_VALUE - jumlah
+                ? produk.getStok() + jumlah : null);
+    }
+
+    @Override
+    public boolean kembalikanStok(String kode, int jumlah) {
+        if (jumlah <= 0) {
+            return false;
+        }
+        return catatLaluTerapkan(kode, produk -> produk.getStok() <= Integer.MAX_VALUE - jumlah
+                ? produk.getStok() + jumlah : null);
+    }
+
+    // Simpan repository dasar (misalnya flush ke disk) lalu kosongkan log. Semua stripe dipegang
+    // selama proses, jadi setiap entri di log sudah diterapkan saat repository dasar disimpan.
+    // Crash di antara keduanya aman karena entri SET diputar ulang tanpa efek ganda.
+    public void checkpoint(Runnable simpanDasar) {
+        int[] semua = new int[JUMLAH_STRIPE];
+        for (int i = 0; i < JUMLAH_STRIPE; i++) {
+            semua[i] = i;
+        }
+        denganStripe(semua, () -> {
+            simpanDasar.run();
+            try {
+                logStok.checkpoint().join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Log stok gagal dikosongkan", e.getCause());
+            }
+            return null;
+        });
+    }
+
+    // hitungStokBaru mengembalikan null kalau mutasi ditolak
+    private boolean catatLaluTerapkan(String kode, Function<Produk, Integer> hitungStokBaru) {
+        if (kode == null) {
+            return false;
+        }
+        return denganStripe(kode, () -> {
+            Optional<Produk> produk = delegate.cariByKode(kode);
+            if (!produk.isPresent()) {
+                return false;
+            }
+            Integer stokBaru = hitungStokBaru.apply(produk.get());
+            if (stokBaru == null) {
+                return false;
+            }
+            tunggu(logStok.catat(LogStok.Jenis.SET, kode, stokBaru));
+            return delegate.updateStok(kode, stokBaru);
+        });
+    }
+
+    private static void tunggu(CompletableFuture<Void> pencatatan) {
+        try {
+            pencatatan.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Mutasi stok gagal dicatat ke log", e.getCause());
+        }
+    }
+
+    // Kalau repository dasar menolak penyimpanan, stok yang tetap berlaku dicatat ulang supaya
+    // entri SET yang baru ditulis tidak diterapkan saat replay
+    private void catatUlangStokDasar(Collection<String> daftarKode) {
+        List<CompletableFuture<Void>> pencatatan = new ArrayList<>();
+        for (String kode : daftarKode) {
+            Optional<Produk> produk = delegate.cariByKode(kode);
+            if (produk.isPresent()) {
+                pencatatan.add(logStok.catat(LogStok.Jenis.SET, kode, produk.get().getStok()));
+            }
+        }
+        tunggu(CompletableFuture.allOf(pencatatan.toArray(new CompletableFuture<?>[0])));
+    }
+
+    private <T> T denganStripe(String kode, Supplier<T> aksi) {
+        return denganStripe(new int[] {indeksStripe(kode)}, aksi);
+    }
+
+    // Indeks harus menaik supaya pemegang beberapa stripe tidak saling deadlock
+    private <T> T denganStripe(int[] indeks, Supplier<T> aksi) {
+        int terkunci = 0;
+        try {
+            for (; terkunci < indeks.length; terkunci++) {
+                stripe[indeks[terkunci]].lock();
+            }
+            return aksi.get();
+        } finally {
+            while (terkunci > 0) {
+                stripe[indeks[--terkunci]].unlock();
+            }
+        }
+    }
+
+    private static int indeksStripe(String kode) {
+        return (kode.hashCode() & 0x7fffffff) % JUMLAH_STRIPE;
+    }
+
+    @Override
+    public boolean simpan(Produk produk) {
+        if (produk == null || produk.getKode() == null) {
+            return delegate.simpan(produk);
+        }
+        return denganStripe(produk.getKode(), () -> {
+            tunggu(logStok.catat(LogStok.Jenis.SET, produk.getKode(), produk.getStok()));
+            boolean berhasil = delegate.simpan(produk);
+            if (!berhasil) {
+                catatUlangStokDasar(List.of(produk.getKode()));
+            }
+            return berhasil;
+        });
+    }
+
+    // Stripe semua kode dikunci urut indeks, lalu semua entri SET dikirim sekaligus
+    // sehingga berbagi group commit sebelum batch diteruskan ke repository dasar
+    @Override
+    public int simpanSemua(Collection<Produk> daftarProduk) {
+        List<String> daftarKode = new ArrayList<>(daftarProduk.size());
+        TreeSet<Integer> indeks = new TreeSet<>();
+        for (Produk produk : daftarProduk) {
+            if (produk != null && produk.getKode() != null) {
+                daftarKode.add(produk.getKode());
+                indeks.add(indeksStripe(produk.getKode()));
+            }
+        }
+        return denganStripe(indeks.stream().mapToInt(Integer::intValue).toArray(), () -> {
+            List<CompletableFuture<Void>> pencatatan = new ArrayList<>(daftarKode.size());
+            for (Produk produk : daftarProduk) {
+                if (produk != null && produk.getKode() != null) {
+                    pencatatan.add(logStok.catat(LogStok.Jenis.SET, produk.getKode(), produk.getStok()));
+                }
+            }
+            tunggu(CompletableFuture.allOf(pencatatan.toArray(new CompletableFuture<?>[0])));
+            int tersimpan = delegate.simpanSemua(daftarProduk);
+            if (tersimpan < daftarKode.size()) {
+                catatUlangStokDasar(daftarKode);
+            }
+            return tersimpan;
+        });
+    }
+
+    @Override
+    public Optional<Produk> cariByKode(String kode) {
+        return delegate.cariByKode(kode);
+    }
+
+    @Override
+    public Map<String, Produk> cariByKodeBanyak(Collection<String> daftarKode) {
+        return delegate.cariByKodeBanyak(daftarKode);
+    }
+
+    @Override
+    public boolean mendukungPencarianBatch() {
+        return delegate.mendukungPencarianBatch();
+    }
+
+    @Override
+    public List<Produk> cariByNama(String nama) {
+        return delegate.cariByNama(nama);
+    }
+
+    @Override
+    public List<Produk> cariByNama(String teks, ModePencarian mode, int offset, int batas) {
+        return delegate.cariByNama(teks, mode, offset, batas);
+    }
+
+    @Override
+    public List<Produk> cariByKategori(String kategori) {
+        return delegate.cariByKategori(kategori);
+    }
+
+    @Override
+    public List<Produk> cariProdukStokMenipis() {
+        return delegate.cariProdukStokMenipis();
+    }
+
+    @Override
+    public List<Produk> cariProdukStokHabis() {
+        return delegate.cariProdukStokHabis();
+    }
+
+    @Override
+    public boolean hapus(String kode) {
+        if (kode == null) {
+            return false;
+        }
+        return denganStripe(kode, () -> delegate.hapus(kode));
+    }
+
+    @Override
+    public List<Produk> cariSemua() {
+        return delegate.cariSemua();
+    }
+
+    @Override
+    public void untukSetiap(Consumer<? super Produk> aksi) {
+        delegate.untukSetiap(aksi);
+    }
+
+    @Override
+    public void untukSetiapByKategori(String kategori, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByKategori(kategori, aksi);
+    }
+
+    @Override
+    public void untukSetiapByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        delegate.untukSetiapByStatusStok(status, aksi);
+    }
+
+    @Override
+    public List<Produk> cariSemuaSetelah(String kodeTerakhir, int batas) {
+        return delegate.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+
+    @Override
+    public boolean updateAktif(String kode, boolean aktif) {
+        return delegate.updateAktif(kode, aktif);
+    }
+
+    @Override
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        return delegate.updateStokMinimum(kode, stokMinimum);
+    }
+
+    @Override
+    public double hitungTotalNilai() {
+        return delegate.hitungTotalNilai();
+    }
+
+    @Override
+    public int hitungTotalStok() {
+        return delegate.hitungTotalStok();
+    }
+}
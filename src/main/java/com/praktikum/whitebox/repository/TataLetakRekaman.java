@@ -0,0 +1,198 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tata letak rekaman produk berukuran tetap (640 byte) di dalam ByteBuffer.
+ * Dipakai bersama oleh repository berbasis file mmap dan off-heap.
+ * Semua akses memakai posisi absolut, jadi posisi buffer tidak pernah diubah.
+ * <pre>
+ * 0    status    (1)   KOSONG / HIDUP / DIHAPUS
+ * 1    kode      (1 + 10)   panjang byte + UTF-8
+ * 12   nama      (2 + 300)
+ * 314  kategori  (2 + 300)
+ * 616  harga     (8)
+ * 624  stok      (4)
+ * 628  stokMin   (4)
+ * 632  aktif     (1)
+ * </pre>
+ */
+final class TataLetakRekaman {
+    static final int UKURAN = 640;
+
+    static final byte KOSONG = 0;
+    static final byte HIDUP = 1;
+    static final byte DIHAPUS = 2;
+
+    static final int MAKS_KODE = 10;
+    static final int MAKS_NAMA = 300;
+    static final int MAKS_KATEGORI = 300;
+
+    static final int POS_STATUS = 0;
+    static final int POS_KODE = 1;
+    static final int POS_NAMA = POS_KODE + 1 + MAKS_KODE;
+    static final int POS_KATEGORI = POS_NAMA + 2 + MAKS_NAMA;
+    static final int POS_HARGA = POS_KATEGORI + 2 + MAKS_KATEGORI;
+    static final int POS_STOK = POS_HARGA + 8;
+    static final int POS_STOK_MINIMUM = POS_STOK + 4;
+    static final int POS_AKTIF = POS_STOK_MINIMUM + 4;
+
+    private TataLetakRekaman() {}
+
+    // Cek apakah semua teks produk muat di slot berukuran tetap
+    static boolean muat(Produk produk) {
+        return produk != null && produk.getKode() != null
+                && panjangByte(produk.getKode()) <= MAKS_KODE
+                && panjangByte(produk.getNama()) <= MAKS_NAMA
+                && panjangByte(produk.getKategori()) <= MAKS_KATEGORI;
+    }
+
+    // Status ditulis paling akhir dan tidak dikosongkan dulu. Menimpa rekaman HIDUP di tempat tidak
+    // aman terhadap crash; repository persisten menulis ke slot baru lalu menandai slot lama dihapus
+    static void tulis(ByteBuffer buffer, int posisi, Produk produk) {
+        tulisTeks(buffer, posisi + POS_KODE, produk.getKode(), false);
+        tulisTeks(buffer, posisi + POS_NAMA, produk.getNama(), true);
+        tulisTeks(buffer, posisi + POS_KATEGORI, produk.getKategori(), true);
+        buffer.putDouble(posisi + POS_HARGA, produk.getHarga());
+        buffer.putInt(posisi + POS_STOK, produk.getStok());
+        buffer.putInt(posisi + POS_STOK_MINIMUM, produk.getStokMinimum());
+        buffer.put(posisi + POS_AKTIF, (byte) (produk.isAktif() ? 1 : 0));
+        buffer.put(posisi + POS_STATUS, HIDUP);
+    }
+
+    static Produk baca(ByteBuffer buffer, int posisi) {
+        Produk produk = new Produk(
+                bacaKode(buffer, posisi),
+                bacaTeks(buffer, posisi + POS_NAMA, true),
+                bacaTeks(buffer, posisi + POS_KATEGORI, true),
+                bacaHarga(buffer, posisi),
+                bacaStok(buffer, posisi),
+                bacaStokMinimum(buffer, posisi));
+        produk.setAktif(isAktif(buffer, posisi));
+        return produk;
+    }
+
+    static byte status(ByteBuffer buffer, int posisi) {
+        return buffer.get(posisi + POS_STATUS);
+    }
+
+    static void tandaiDihapus(ByteBuffer buffer, int posisi) {
+        buffer.put(posisi + POS_STATUS, DIHAPUS);
+    }
+
+    static String bacaKode(ByteBuffer buffer, int posisi) {
+        return bacaTeks(buffer, posisi + POS_KODE, false);
+    }
+
+    static String bacaNama(ByteBuffer buffer, int posisi) {
+        return bacaTeks(buffer, posisi + POS_NAMA, true);
+    }
+
+    static String bacaKategori(ByteBuffer buffer, int posisi) {
+        return bacaTeks(buffer, posisi + POS_KATEGORI, true);
+    }
+
+    static double bacaHarga(ByteBuffer buffer, int posisi) {
+        return buffer.getDouble(posisi + POS_HARGA);
+    }
+
+    static int bacaStok(ByteBuffer buffer, int posisi) {
+        return buffer.getInt(posisi + POS_STOK);
+    }
+
+    static void tulisStok(ByteBuffer buffer, int posisi, int stok) {
+        buffer.putInt(posisi + POS_STOK, stok);
+    }
+
+    static int bacaStokMinimum(ByteBuffer buffer, int posisi) {
+        return buffer.getInt(posisi + POS_STOK_MINIMUM);
+    }
+
+    static void tulisStokMinimum(ByteBuffer buffer, int posisi, int stokMinimum) {
+        buffer.putInt(posisi + POS_STOK_MINIMUM, stokMinimum);
+    }
+
+    static boolean isAktif(ByteBuffer buffer, int posisi) {
+        return buffer.get(posisi + POS_AKTIF) != 0;
+    }
+
+    static void tulisAktif(ByteBuffer buffer, int posisi, boolean aktif) {
+        buffer.put(posisi + POS_AKTIF, (byte) (aktif ? 1 : 0));
+    }
+
+    // Bandingkan kode di rekaman dengan byte UTF-8 kode tanpa membuat String baru
+    static boolean kodeSama(ByteBuffer buffer, int posisi, byte[] kode) {
+        int panjang = buffer.get(posisi + POS_KODE) & 0xFF;
+        if (panjang != kode.length) {
+            return false;
+        }
+        for (int i = 0; i < panjang; i++) {
+            if (buffer.get(posisi + POS_KODE + 1 + i) != kode[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hash FNV-1a atas byte kode; versi buffer dan versi array memberi hasil yang sama
+    static int hashKode(byte[] kode) {
+        int hash = 0x811C9DC5;
+        for (byte b : kode) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    static int hashKode(ByteBuffer buffer, int posisi) {
+        int panjang = buffer.get(posisi + POS_KODE) & 0xFF;
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < panjang; i++) {
+            hash = (hash ^ (buffer.get(posisi + POS_KODE + 1 + i) & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    static byte[] bytes(String teks) {
+        return teks.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int panjangByte(String teks) {
+        return teks == null ? 0 : bytes(teks).length;
+    }
+
+    // Panjang -1 menandai null
+    private static void tulisTeks(ByteBuffer buffer, int posisi, String teks, boolean panjangDuaByte) {
+        byte[] isi = teks == null ? null : bytes(teks);
+        int panjang = isi == null ? -1 : isi.length;
+        if (panjangDuaByte) {
+            buffer.putShort(posisi, (short) panjang);
+            posisi += 2;
+        } else {
+            buffer.put(posisi, (byte) panjang);
+            posisi += 1;
+        }
+        if (isi != null) {
+            buffer.put(posisi, isi);
+        }
+    }
+
+    private static String bacaTeks(ByteBuffer buffer, int posisi, boolean panjangDuaByte) {
+        int panjang;
+        if (panjangDuaByte) {
+            panjang = buffer.getShort(posisi);
+            posisi += 2;
+        } else {
+            panjang = buffer.get(posisi);
+            posisi += 1;
+        }
+        if (panjang < 0) {
+            return null;
+        }
+        byte[] isi = new byte[panjang];
+        buffer.get(posisi, isi);
+        return new String(isi, StandardCharsets.UTF_8);
+    }
+}
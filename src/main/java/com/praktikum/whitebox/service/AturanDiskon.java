@@ -0,0 +1,175 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.TipePelanggan;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Satu set aturan diskon yang sudah dikompilasi dan tidak bisa diubah (immutable).
+ * Tier kuantitas disimpan sebagai array ambang terurut (dicari dengan binary search),
+ * dan kalau ambang tertingginya kecil, persen final per kuantitas langsung ditabelkan.
+ * <p>
+ * Format file konfigurasi (properties):
+ * <pre>
+ * tier.ambang=5,10,50,100
+ * tier.diskon=0.05,0.10,0.15,0.20
+ * pelanggan.PREMIUM=0.10
+ * pelanggan.REGULER=0.05
+ * pelanggan.UMUM=0.02
+ * diskon.maksimal=0.30
+ * </pre>
+ */
+public final class AturanDiskon {
+    // Di atas ambang ini tabel per kuantitas terlalu besar, pakai binary search saja
+    private static final int BATAS_TABEL = 4096;
+    private static final AturanDiskon BAWAAN = new AturanDiskon(
+            new int[]{5, 10, 50, 100},
+            new double[]{0.05, 0.10, 0.15, 0.20},
+            bonusBawaan(),
+            0.30);
+
+    private final int[] ambangKuantitas;
+    private final double[] diskonKuantitas;
+    private final double[] bonusPelanggan;
+    private final double diskonMaksimal;
+    // [tipe pelanggan][kuantitas] -> persen final, null kalau ambang tertinggi > BATAS_TABEL
+    private final double[][] tabel;
+
+    public AturanDiskon(int[] ambangKuantitas, double[] diskonKuantitas,
+                        double[] bonusPelanggan, double diskonMaksimal) {
+        if (ambangKuantitas.length != diskonKuantitas.length) {
+            throw new IllegalArgumentException("Jumlah ambang dan diskon tier harus sama");
+        }
+        if (bonusPelanggan.length != TipePelanggan.values().length) {
+            throw new IllegalArgumentException("Bonus harus ada untuk setiap tipe pelanggan");
+        }
+        for (int i = 0; i < ambangKuantitas.length; i++) {
+            if (ambangKuantitas[i] <= 0 || (i > 0 && ambangKuantitas[i] <= ambangKuantitas[i - 1])) {
+                throw new IllegalArgumentException("Ambang kuantitas harus positif dan naik");
+            }
+            cekPersen(diskonKuantitas[i]);
+        }
+        for (double bonus : bonusPelanggan) {
+            cekPersen(bonus);
+        }
+        cekPersen(diskonMaksimal);
+        this.ambangKuantitas = ambangKuantitas.clone();
+        this.diskonKuantitas = diskonKuantitas.clone();
+        this.bonusPelanggan = bonusPelanggan.clone();
+        this.diskonMaksimal = diskonMaksimal;
+        this.tabel = buatTabel();
+    }
+
+    public static AturanDiskon bawaan() {
+        return BAWAAN;
+    }
+
+    private static double[] bonusBawaan() {
+        double[] bonus = new double[TipePelanggan.values().length];
+        for (TipePelanggan tipe : TipePelanggan.values()) {
+            bonus[tipe.ordinal()] = tipe.getBonusDiskon();
+        }
+        return bonus;
+    }
+
+    public static AturanDiskon muat(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return dariProperties(properties);
+    }
+
+    public static AturanDiskon dariProperties(Properties properties) {
+        String[] ambang = pecah(wajib(properties, "tier.ambang"));
+        String[] diskon = pecah(wajib(properties, "tier.diskon"));
+        int[] ambangKuantitas = new int[ambang.length];
+        double[] diskonKuantitas = new double[diskon.length];
+        try {
+            for (int i = 0; i < ambang.length; i++) {
+                ambangKuantitas[i] = Integer.parseInt(ambang[i]);
+            }
+            for (int i = 0; i < diskon.length; i++) {
+                diskonKuantitas[i] = Double.parseDouble(diskon[i]);
+            }
+            double[] bonusPelanggan = new double[TipePelanggan.values().length];
+            for (TipePelanggan tipe : TipePelanggan.values()) {
+                bonusPelanggan[tipe.ordinal()] =
+                        Double.parseDouble(properties.getProperty("pelanggan." + tipe.name(), "0").trim());
+            }
+            double diskonMaksimal = Double.parseDouble(wajib(properties, "diskon.maksimal"));
+            return new AturanDiskon(ambangKuantitas, diskonKuantitas, bonusPelanggan, diskonMaksimal);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Angka tidak valid di konfigurasi diskon: " + e.getMessage(), e);
+        }
+    }
+
+    // Persen diskon final (tier + bonus pelanggan, sudah dibatasi maksimal)
+    public double persenDiskon(int kuantitas, TipePelanggan tipePelanggan) {
+        int tipe = (tipePelanggan != null ? tipePelanggan : TipePelanggan.UMUM).ordinal();
+        if (tabel != null) {
+            return tabel[tipe][Math.min(kuantitas, tabel[tipe].length - 1)];
+        }
+        return hitungPersen(kuantitas, tipe);
+    }
+
+    public double getDiskonMaksimal() {
+        return diskonMaksimal;
+    }
+
+    private double hitungPersen(int kuantitas, int tipe) {
+        double diskon = 0.0;
+        int indeks = Arrays.binarySearch(ambangKuantitas, kuantitas);
+        if (indeks < 0) {
+            // Bukan ambang persis: ambil tier terakhir yang ambangnya <= kuantitas
+            indeks = -indeks - 2;
+        }
+        if (indeks >= 0) {
+            diskon += diskonKuantitas[indeks];
+        }
+        diskon += bonusPelanggan[tipe];
+        return Math.min(diskon, diskonMaksimal);
+    }
+
+    private double[][] buatTabel() {
+        int tertinggi = ambangKuantitas.length > 0 ? ambangKuantitas[ambangKuantitas.length - 1] : 0;
+        if (tertinggi > BATAS_TABEL) {
+            return null;
+        }
+        double[][] hasil = new double[bonusPelanggan.length][tertinggi + 1];
+        for (int tipe = 0; tipe < hasil.length; tipe++) {
+            for (int kuantitas = 0; kuantitas <= tertinggi; kuantitas++) {
+                hasil[tipe][kuantitas] = hitungPersen(kuantitas, tipe);
+            }
+        }
+        return hasil;
+    }
+
+    private static void cekPersen(double persen) {
+        if (!(persen >= 0 && persen <= 1)) {
+            throw new IllegalArgumentException("Persen diskon harus di antara 0 dan 1: " + persen);
+        }
+    }
+
+    private static String wajib(Properties properties, String kunci) {
+        String nilai = properties.getProperty(kunci);
+        if (nilai == null || nilai.trim().isEmpty()) {
+            throw new IllegalArgumentException("Konfigurasi diskon tidak lengkap: " + kunci);
+        }
+        return nilai.trim();
+    }
+
+    private static String[] pecah(String nilai) {
+        String[] bagian = nilai.split(",");
+        for (int i = 0; i < bagian.length; i++) {
+            bagian[i] = bagian[i].trim();
+        }
+        return bagian;
+    }
+}
@@ -0,0 +1,126 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.Produk;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Menjalankan setiap panggilan {@link ServiceInventaris} di virtual thread sendiri, jadi
+ * panggilan yang tertahan I/O repository tidak menghabiskan thread platform.
+ * <p>
+ * Manfaat itu hanya berlaku kalau penantian blocking tidak terjadi di dalam blok synchronized:
+ * di JDK 21 virtual thread yang menunggu sambil memegang monitor menahan carrier thread-nya,
+ * sehingga sebanyak jumlah core penantian fsync sudah cukup menghentikan scheduler. Karena itu
+ * stripe di {@link ServiceInventaris}, RepositoryProdukWal dan RepositoryProdukCdc memakai
+ * ReentrantLock; repository lain yang memegang monitor selama I/O tidak mendapat manfaat ini.
+ * <p>
+ * Jumlah panggilan yang berjalan bersamaan dibatasi per {@link JenisOperasi} dengan semaphore.
+ * Setiap panggilan punya batas waktu yang mencakup antre izin dan eksekusi; setelah lewat,
+ * future selesai dengan {@link TimeoutException}. Pembatalan (atau timeout) sebelum operasi
+ * dimulai membatalkan antreannya. Operasi yang sudah berjalan tidak di-interrupt, karena
+ * interrupt di tengah I/O FileChannel menutup channel repository mmap/WAL; hasilnya saja
+ * yang dibuang.
+ */
+public class EksekutorInventaris implements AutoCloseable {
+    public enum JenisOperasi { BACA, MUTASI, LAPORAN }
+
+    private static final int MENUNGGU = 0;
+    private static final int BERJALAN = 1;
+    private static final int DIBATALKAN = 2;
+
+    private final ServiceInventaris service;
+    private final Map<JenisOperasi, Semaphore> izin = new EnumMap<>(JenisOperasi.class);
+    private final Duration batasWaktuDefault;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public EksekutorInventaris(ServiceInventaris service, Map<JenisOperasi, Integer> batasPerJenis,
+                               Duration batasWaktuDefault) {
+        this.service = service;
+        this.batasWaktuDefault = batasWaktuDefault;
+        for (JenisOperasi jenis : JenisOperasi.values()) {
+            Integer batas = batasPerJenis.get(jenis);
+            if (batas == null || batas <= 0) {
+                throw new IllegalArgumentException("Batas izin " + jenis + " harus positif");
+            }
+            izin.put(jenis, new Semaphore(batas, true));
+        }
+    }
+
+    public <T> CompletableFuture<T> jalankan(JenisOperasi jenis, Function<ServiceInventaris, T> operasi) {
+        return jalankan(jenis, batasWaktuDefault, operasi);
+    }
+
+    public <T> CompletableFuture<T> jalankan(JenisOperasi jenis, Duration batasWaktu,
+                                             Function<ServiceInventaris, T> operasi) {
+        CompletableFuture<T> hasil = new CompletableFuture<>();
+        AtomicInteger status = new AtomicInteger(MENUNGGU);
+        long tenggat = System.nanoTime() + batasWaktu.toNanos();
+        Semaphore izinJenis = izin.get(jenis);
+        Future<?> tugas = executor.submit(() -> {
+            try {
+                if (!izinJenis.tryAcquire(tenggat - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    hasil.completeExceptionally(new TimeoutException("Izin " + jenis + " habis sampai batas waktu"));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                // Dibatalkan saat antre izin; future sudah selesai oleh pemanggil
+                return;
+            }
+            try {
+                if (status.compareAndSet(MENUNGGU, BERJALAN)) {
+                    hasil.complete(operasi.apply(service));
+                }
+            } catch (Throwable e) {
+                // Termasuk Error (misalnya StackOverflowError), supaya future tidak menggantung selamanya
+                hasil.completeExceptionally(e);
+            } finally {
+                izinJenis.release();
+            }
+        });
+        hasil.orTimeout(batasWaktu.toNanos(), TimeUnit.NANOSECONDS);
+        hasil.whenComplete((nilai, error) -> {
+            if (error != null && status.compareAndSet(MENUNGGU, DIBATALKAN)) {
+                tugas.cancel(true);
+            }
+        });
+        return hasil;
+    }
+
+    public CompletableFuture<Optional<Produk>> cariProdukByKode(String kode) {
+        return jalankan(JenisOperasi.BACA, s -> s.cariProdukByKode(kode));
+    }
+
+    public CompletableFuture<Boolean> keluarStok(String kode, int jumlah) {
+        return jalankan(JenisOperasi.MUTASI, s -> s.keluarStok(kode, jumlah));
+    }
+
+    public CompletableFuture<Boolean> masukStok(String kode, int jumlah) {
+        return jalankan(JenisOperasi.MUTASI, s -> s.masukStok(kode, jumlah));
+    }
+
+    public CompletableFuture<Double> hitungTotalNilaiInventaris() {
+        return jalankan(JenisOperasi.LAPORAN, ServiceInventaris::hitungTotalNilaiInventaris);
+    }
+
+    public int izinTersedia(JenisOperasi jenis) {
+        return izin.get(jenis).availablePermits();
+    }
+
+    // Tolak panggilan baru dan tunggu yang sedang berjalan selesai
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
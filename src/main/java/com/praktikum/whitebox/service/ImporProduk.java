@@ -0,0 +1,211 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProduk;
+import com.praktikum.whitebox.util.ValidationUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Impor katalog produk dari file CSV secara streaming, untuk jutaan baris dari pemasok.
+ * <p>
+ * File dibaca per batch baris. Setiap batch di-parse dan divalidasi paralel di
+ * {@link ForkJoinPool}, lalu kode duplikat di dalam batch dibuang dengan hash set, dan kode yang
+ * sudah ada di repository dicek dengan satu {@link RepositoryProduk#cariByKodeBanyak}; duplikat
+ * dari batch sebelumnya tertangkap di sini karena batch itu sudah disimpan. Sisanya disimpan
+ * dengan satu {@link RepositoryProduk#simpanSemua}. Memori yang dipakai sebanding ukuran batch.
+ * <p>
+ * Format baris: {@code kode,nama,kategori,harga,stok,stokMinimum}, tanpa tanda kutip
+ * (nama dan kategori yang valid tidak berisi koma). Header yang diawali "kode" dan baris
+ * kosong dilewati. Baris yang ditolak dihitung semua, tapi detailnya hanya disimpan untuk
+ * {@value #MAKS_DETAIL_DITOLAK} baris pertama.
+ */
+public class ImporProduk {
+    public static final int UKURAN_BATCH_DEFAULT = 10_000;
+    public static final int MAKS_DETAIL_DITOLAK = 1000;
+    private static final int JUMLAH_KOLOM = 6;
+
+    private final RepositoryProduk repositoryProduk;
+    private final ForkJoinPool pool;
+    private final int ukuranBatch;
+
+    public ImporProduk(RepositoryProduk repositoryProduk) {
+        this(repositoryProduk, ForkJoinPool.commonPool(), UKURAN_BATCH_DEFAULT);
+    }
+
+    public ImporProduk(RepositoryProduk repositoryProduk, ForkJoinPool pool, int ukuranBatch) {
+        if (ukuranBatch <= 0) {
+            throw new IllegalArgumentException("Ukuran batch harus positif");
+        }
+        this.repositoryProduk = repositoryProduk;
+        this.pool = pool;
+        this.ukuranBatch = ukuranBatch;
+    }
+
+    public HasilImpor impor(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return impor(reader);
+        }
+    }
+
+    public HasilImpor impor(BufferedReader reader) throws IOException {
+        HasilImpor hasil = new HasilImpor();
+        List<String> batch = new ArrayList<>(ukuranBatch);
+        int nomorBaris = 0;
+        int nomorAwalBatch = 1;
+        String baris;
+        while ((baris = reader.readLine()) != null) {
+            nomorBaris++;
+            if (nomorBaris == 1 && baris.trim().toLowerCase(Locale.ROOT).startsWith("kode")) {
+                nomorAwalBatch = 2;
+                continue;
+            }
+            batch.add(baris);
+            if (batch.size() == ukuranBatch) {
+                prosesBatch(batch, nomorAwalBatch, hasil);
+                batch.clear();
+                nomorAwalBatch = nomorBaris + 1;
+            }
+        }
+        if (!batch.isEmpty()) {
+            prosesBatch(batch, nomorAwalBatch, hasil);
+        }
+        return hasil;
+    }
+
+    private void prosesBatch(List<String> batch, int nomorAwal, HasilImpor hasil) {
+        // Parse dan validasi paralel; tugas dikirim ke pool supaya stream paralel memakai pool itu
+        Object[] terurai = pool.submit(() -> IntStream.range(0, batch.size())
+                .parallel()
+                .mapToObj(i -> urai(batch.get(i)))
+                .toArray()).join();
+
+        Set<String> kodeTerlihat = new HashSet<>();
+        List<Produk> kandidat = new ArrayList<>(terurai.length);
+        List<Integer> nomorKandidat = new ArrayList<>(terurai.length);
+        for (int i = 0; i < terurai.length; i++) {
+            Object baris = terurai[i];
+            if (baris == null) {
+                continue;
+            }
+            if (baris instanceof String) {
+                hasil.tolak(nomorAwal + i, (String) baris);
+            } else if (!kodeTerlihat.add(((Produk) baris).getKode())) {
+                hasil.tolak(nomorAwal + i, "Kode duplikat di file");
+            } else {
+                kandidat.add((Produk) baris);
+                nomorKandidat.add(nomorAwal + i);
+            }
+        }
+        if (kandidat.isEmpty()) {
+            return;
+        }
+
+        List<String> daftarKode = new ArrayList<>(kandidat.size());
+        for (Produk produk : kandidat) {
+            daftarKode.add(produk.getKode());
+        }
+        Map<String, Produk> sudahAda = repositoryProduk.cariByKodeBanyak(daftarKode);
+        List<Produk> baru = new ArrayList<>(kandidat.size());
+        List<Integer> nomorBaru = new ArrayList<>(kandidat.size());
+        for (int i = 0; i < kandidat.size(); i++) {
+            if (sudahAda.containsKey(kandidat.get(i).getKode())) {
+                hasil.tolak(nomorKandidat.get(i), "Kode sudah ada di repository");
+            } else {
+                baru.add(kandidat.get(i));
+                nomorBaru.add(nomorKandidat.get(i));
+            }
+        }
+        int tersimpan = repositoryProduk.simpanSemua(baru);
+        hasil.jumlahBerhasil += tersimpan;
+        if (tersimpan < baru.size()) {
+            laporkanGagalSimpan(baru, nomorBaru, hasil);
+        }
+    }
+
+    // simpanSemua hanya mengembalikan jumlah; baris yang tidak tersimpan dicari ulang per kode
+    private void laporkanGagalSimpan(List<Produk> baru, List<Integer> nomorBaru, HasilImpor hasil) {
+        List<String> daftarKode = new ArrayList<>(baru.size());
+        for (Produk produk : baru) {
+            daftarKode.add(produk.getKode());
+        }
+        Map<String, Produk> tersimpan = repositoryProduk.cariByKodeBanyak(daftarKode);
+        for (int i = 0; i < baru.size(); i++) {
+            if (!tersimpan.containsKey(baru.get(i).getKode())) {
+                hasil.tolak(nomorBaru.get(i), "Ditolak repository saat disimpan");
+            }
+        }
+    }
+
+    // Produk kalau valid, String alasan kalau ditolak, null untuk baris kosong
+    private static Object urai(String baris) {
+        if (baris.trim().isEmpty()) {
+            return null;
+        }
+        String[] kolom = baris.split(",", -1);
+        if (kolom.length != JUMLAH_KOLOM) {
+            return "Jumlah kolom harus " + JUMLAH_KOLOM;
+        }
+        Produk produk;
+        try {
+            produk = new Produk(kolom[0].trim(), kolom[1].trim(), kolom[2].trim(),
+                    Double.parseDouble(kolom[3].trim()),
+                    Integer.parseInt(kolom[4].trim()),
+                    Integer.parseInt(kolom[5].trim()));
+        } catch (NumberFormatException e) {
+            return "Format angka tidak valid";
+        }
+        return ValidationUtils.isValidProduk(produk) ? produk : "Data produk tidak valid";
+    }
+
+    public static class HasilImpor {
+        private int jumlahBerhasil;
+        private int jumlahDitolak;
+        private final List<BarisDitolak> ditolak = new ArrayList<>();
+
+        private void tolak(int nomorBaris, String alasan) {
+            jumlahDitolak++;
+            if (ditolak.size() < MAKS_DETAIL_DITOLAK) {
+                ditolak.add(new BarisDitolak(nomorBaris, alasan));
+            }
+        }
+
+        public int getJumlahBerhasil() { return jumlahBerhasil; }
+        public int getJumlahDitolak() { return jumlahDitolak; }
+        public List<BarisDitolak> getDitolak() { return Collections.unmodifiableList(ditolak); }
+    }
+
+    public static class BarisDitolak {
+        private final int nomorBaris;
+        private final String alasan;
+
+        public BarisDitolak(int nomorBaris, String alasan) {
+            this.nomorBaris = nomorBaris;
+            this.alasan = alasan;
+        }
+
+        public int getNomorBaris() { return nomorBaris; }
+        public String getAlasan() { return alasan; }
+
+        @Override
+        public String toString() {
+            return "BarisDitolak{" +
+                    "nomorBaris=" + nomorBaris +
+                    ", alasan='" + alasan + '\'' +
+                    '}';
+        }
+    }
+}
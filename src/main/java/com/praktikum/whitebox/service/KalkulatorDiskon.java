@@ -1,37 +1,62 @@
 package com.praktikum.whitebox.service;
 
+import com.praktikum.whitebox.model.TipePelanggan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
 public class KalkulatorDiskon {
+    // Diganti utuh saat aturan baru dimuat; setiap perhitungan membaca referensinya sekali
+    private volatile AturanDiskon aturan;
+
+    public KalkulatorDiskon() {
+        this(AturanDiskon.bawaan());
+    }
+    public KalkulatorDiskon(AturanDiskon aturan) {
+        this.aturan = Objects.requireNonNull(aturan, "aturan");
+    }
+    public AturanDiskon getAturan() {
+        return aturan;
+    }
+    // Tukar set aturan saat runtime tanpa menghentikan thread yang sedang menghitung harga
+    public void gantiAturan(AturanDiskon aturanBaru) {
+        this.aturan = Objects.requireNonNull(aturanBaru, "aturan");
+    }
+    // Kalau file tidak valid, aturan lama tetap dipakai dan exception diteruskan
+    public void muatUlangAturan(Path file) throws IOException {
+        gantiAturan(AturanDiskon.muat(file));
+    }
+
     public double hitungDiskon(double harga, int kuantitas, String tipePelanggan) {
+        return hitungDiskon(harga, kuantitas, TipePelanggan.dari(tipePelanggan));
+    }
+    public double hitungDiskon(double harga, int kuantitas, TipePelanggan tipePelanggan) {
         if (harga <= 0 || kuantitas <= 0) {
             throw new IllegalArgumentException("Harga dan kuantitas harus positif");
         }
-        double diskon = 0.0;
-// Diskon berdasarkan kuantitas
-        if (kuantitas >= 100) {
-            diskon += 0.20; // 20%
-        } else if (kuantitas >= 50) {
-            diskon += 0.15; // 15%
-        } else if (kuantitas >= 10) {
-            diskon += 0.10; // 10%
-        } else if (kuantitas >= 5) {
-            diskon += 0.05; // 5%
-        }
-// Diskon berdasarkan tipe pelanggan
-        if ("PREMIUM".equalsIgnoreCase(tipePelanggan)) {
-            diskon += 0.10; // 10% tambahan
-        } else if ("REGULER".equalsIgnoreCase(tipePelanggan)) {
-            diskon += 0.05; // 5% tambahan
-        } else {diskon += 0.02; // 2% tambahan
+        return harga * kuantitas * aturan.persenDiskon(kuantitas, tipePelanggan);
     }
-
-// Maksimal diskon 30%
-        diskon = Math.min(diskon, 0.30);
-        return harga * kuantitas * diskon;
+    // Versi bulk untuk reprice keranjang: hasil diskon tiap baris ditulis ke out
+    public void hitungDiskon(double[] harga, int[] kuantitas, TipePelanggan[] tipePelanggan, double[] out) {
+        AturanDiskon aturanAktif = aturan;
+        int n = harga.length;
+        if (kuantitas.length != n || tipePelanggan.length != n || out.length < n) {
+            throw new IllegalArgumentException("Panjang array tidak sama");
+        }
+        for (int i = 0; i < n; i++) {
+            if (harga[i] <= 0 || kuantitas[i] <= 0) {
+                throw new IllegalArgumentException("Harga dan kuantitas harus positif (baris " + i + ")");
+            }
+            out[i] = harga[i] * kuantitas[i] * aturanAktif.persenDiskon(kuantitas[i], tipePelanggan[i]);
+        }
     }
     public double hitungHargaSetelahDiskon(double harga, int kuantitas, String tipePelanggan) {
-        double totalSebelumDiskon = harga * kuantitas;
+        return hitungHargaSetelahDiskon(harga, kuantitas, TipePelanggan.dari(tipePelanggan));
+    }
+    public double hitungHargaSetelahDiskon(double harga, int kuantitas, TipePelanggan tipePelanggan) {
         double diskon = hitungDiskon(harga, kuantitas, tipePelanggan);
-        return totalSebelumDiskon - diskon;
+        return harga * kuantitas - diskon;
     }
     public String getKategoriDiskon(double persentaseDiskon) {
         if (persentaseDiskon <= 0) {
@@ -44,4 +69,4 @@ public class KalkulatorDiskon {
             return "DISKON_BESAR";
         }
     }
-}
\ No newline at end of file
+}
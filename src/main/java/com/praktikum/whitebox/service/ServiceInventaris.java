@@ -1,15 +1,66 @@
 package com.praktikum.whitebox.service;
 
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.MutasiStok;
 import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.Reservasi;
+import com.praktikum.whitebox.model.StatusStok;
 import com.praktikum.whitebox.repository.RepositoryProduk;
 import com.praktikum.whitebox.util.ValidationUtils;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public class ServiceInventaris {
+    private static final Duration MASA_RESERVASI_DEFAULT = Duration.ofMinutes(15);
+    private static final int JUMLAH_STRIPE_RESERVASI = 64;
+
     private final RepositoryProduk repositoryProduk;
+    private final Map<String, Reservasi> reservasiAktif = new ConcurrentHashMap<>();
+    private final AtomicLong nomorReservasi = new AtomicLong();
+    private volatile Clock jam = Clock.systemUTC();
+    // Lock stripe per kode; null kalau mode kunci per kode tidak dipakai. ReentrantLock, bukan
+    // synchronized, karena dipegang selama I/O repository: virtual thread yang menunggu di sini
+    // (lewat EksekutorInventaris) tidak menahan carrier thread-nya
+    private final ReentrantLock[] stripe;
+    // Lock reservasi: sama dengan stripe di mode kunci per kode, atau set sendiri kalau tidak
+    private final ReentrantLock[] stripeReservasi;
     public ServiceInventaris(RepositoryProduk repositoryProduk) {
         this.repositoryProduk = repositoryProduk;
+        this.stripe = null;
+        this.stripeReservasi = buatStripe(JUMLAH_STRIPE_RESERVASI);
+    }
+    // Mode kunci per kode untuk repository tanpa operasi stok atomik: mutasi pada kode yang
+    // sama berurutan lewat salah satu dari jumlahStripe lock, kode berbeda tetap paralel
+    public ServiceInventaris(RepositoryProduk repositoryProduk, int jumlahStripe) {
+        if (jumlahStripe <= 0) {
+            throw new IllegalArgumentException("Jumlah stripe harus positif");
+        }
+        this.repositoryProduk = repositoryProduk;
+        this.stripe = buatStripe(jumlahStripe);
+        this.stripeReservasi = stripe;
+    }
+    private static ReentrantLock[] buatStripe(int jumlah) {
+        ReentrantLock[] hasil = new ReentrantLock[jumlah];
+        for (int i = 0; i < jumlah; i++) {
+            hasil[i] = new ReentrantLock();
+        }
+        return hasil;
     }
     public boolean tambahProduk(Produk produk) {
         if (!ValidationUtils.isValidProduk(produk)) {
@@ -27,15 +78,19 @@ public class ServiceInventaris {
         if (!ValidationUtils.isValidKodeProduk(kode)) {
             return false;
         }
-        Optional<Produk> produk = repositoryProduk.cariByKode(kode);
-        if (!produk.isPresent()) {
-            return false;
-        }
-// Tidak bisa hapus produk yang masih ada stoknya
-        if (produk.get().getStok() > 0) {
-            return false;
-        }
-        return repositoryProduk.hapus(kode);
+        // Selalu lewat lock reservasi (di mode kunci per kode sama dengan stripe biasa), supaya
+        // tidak lolos di antara pengurangan stok dan pencatatan reservasi yang sedang berjalan
+        return denganKunciSemua(Collections.singletonList(kode), () -> {
+            Optional<Produk> produk = repositoryProduk.cariByKode(kode);
+            if (!produk.isPresent()) {
+                return false;
+            }
+// Tidak bisa hapus produk yang masih ada stoknya, termasuk stok yang sedang direservasi
+            if (produk.get().getStok() > 0 || isDireservasi(kode)) {
+                return false;
+            }
+            return repositoryProduk.hapus(kode);
+        });
     }
     public Optional<Produk> cariProdukByKode(String kode) {
         if (!ValidationUtils.isValidKodeProduk(kode)) {
@@ -43,9 +98,36 @@ public class ServiceInventaris {
         }
         return repositoryProduk.cariByKode(kode);
     }
+    // Ambil banyak produk sekaligus (misalnya semua baris keranjang): kode divalidasi dalam
+    // satu lintasan, lalu kode yang valid diambil repository dalam satu batch
+    public Map<String, Produk> cariProdukByKodeBanyak(Collection<String> daftarKode) {
+        if (daftarKode == null || daftarKode.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<String> kodeValid = new ArrayList<>(daftarKode.size());
+        for (String kode : daftarKode) {
+            if (ValidationUtils.isValidKodeProduk(kode)) {
+                kodeValid.add(kode);
+            }
+        }
+        if (kodeValid.isEmpty()) {
+            return new HashMap<>();
+        }
+        return repositoryProduk.cariByKodeBanyak(kodeValid);
+    }
     public List<Produk> cariProdukByNama(String nama) {
+        if (nama == null || nama.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
         return repositoryProduk.cariByNama(nama);
     }
+    // Pencarian per halaman untuk type-ahead: awalan atau substring, hasil terurut nama
+    public List<Produk> cariProdukByNama(String nama, ModePencarian mode, int offset, int batas) {
+        if (nama == null || nama.trim().isEmpty() || mode == null || offset < 0 || batas <= 0) {
+            return new ArrayList<>();
+        }
+        return repositoryProduk.cariByNama(nama, mode, offset, batas);
+    }
     public List<Produk> cariProdukByKategori(String kategori) {
         return repositoryProduk.cariByKategori(kategori);
     }
@@ -53,37 +135,266 @@ public class ServiceInventaris {
         if (!ValidationUtils.isValidKodeProduk(kode) || stokBaru < 0) {
             return false;
         }
-        Optional<Produk> produk = repositoryProduk.cariByKode(kode);
-        if (!produk.isPresent()) {
+        // Selalu lewat lock reservasi (di mode kunci per kode sama dengan stripe biasa), supaya
+        // tidak lolos di antara pengurangan stok dan pencatatan reservasi yang sedang berjalan
+        return denganKunciSemua(Collections.singletonList(kode), () -> {
+            Optional<Produk> produk = repositoryProduk.cariByKode(kode);
+            if (!produk.isPresent()) {
+                return false;
+            }
+            return repositoryProduk.updateStok(kode, stokBaru);
+        });
+    }
+    public boolean updateStokMinimum(String kode, int stokMinimum) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || !ValidationUtils.isValidStokMinimum(stokMinimum)) {
             return false;
         }
-        return repositoryProduk.updateStok(kode, stokBaru);
+        return repositoryProduk.updateStokMinimum(kode, stokMinimum);
     }
     public boolean keluarStok(String kode, int jumlah) {
         if (!ValidationUtils.isValidKodeProduk(kode) || jumlah <= 0) {
             return false;
         }
-        Optional<Produk> produkOpt = repositoryProduk.cariByKode(kode);
-        if (!produkOpt.isPresent() || !produkOpt.get().isAktif()) {
+// Cek produk aktif, stok cukup, dan pengurangan dilakukan atomik di repository
+        return denganKunci(kode, () -> repositoryProduk.kurangiStokJikaCukup(kode, jumlah));
+    }
+    public boolean masukStok(String kode, int jumlah) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || jumlah <= 0) {
             return false;
         }
-        Produk produk = produkOpt.get();
-        if (produk.getStok() < jumlah) {
-            return false;
+        return denganKunci(kode, () -> repositoryProduk.tambahStok(kode, jumlah));
+    }
+    public boolean[] prosesBatch(List<MutasiStok> daftarMutasi) {
+        return prosesBatch(daftarMutasi, false);
+    }
+    // Proses banyak mutasi sekaligus: baris dikelompokkan per kode dan hanya
+    // delta bersihnya yang diterapkan, jadi satu panggilan repository per kode.
+    // Baris dengan kode yang sama berhasil atau gagal bersama-sama.
+    // Mode semuaAtauTidak: kalau ada satu baris gagal, tidak ada yang diterapkan.
+    public boolean[] prosesBatch(List<MutasiStok> daftarMutasi, boolean semuaAtauTidak) {
+        if (daftarMutasi == null || daftarMutasi.isEmpty()) {
+            return new boolean[0];
+        }
+        boolean[] hasil = new boolean[daftarMutasi.size()];
+        Map<String, Long> deltaPerKode = new LinkedHashMap<>();
+        boolean adaBarisTidakValid = kelompokkanDelta(daftarMutasi, hasil, deltaPerKode);
+        if (semuaAtauTidak && adaBarisTidakValid) {
+            return new boolean[daftarMutasi.size()];
+        }
+// Pengurangan duluan, karena hanya pengurangan yang bisa gagal karena stok kurang
+        List<Map.Entry<String, Long>> urutan = new ArrayList<>(deltaPerKode.entrySet());
+        urutan.sort(Map.Entry.comparingByValue());
+        Map<String, Boolean> berhasilPerKode = new HashMap<>();
+        List<Map.Entry<String, Long>> sudahDiterapkan = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : urutan) {
+            boolean berhasil = terapkanDelta(entry.getKey(), entry.getValue());
+            if (!berhasil && semuaAtauTidak) {
+                batalkanDelta(sudahDiterapkan);
+                return new boolean[daftarMutasi.size()];
+            }
+            if (berhasil) {
+                sudahDiterapkan.add(entry);
+            }
+            berhasilPerKode.put(entry.getKey(), berhasil);
         }
-        int stokBaru = produk.getStok() - jumlah;
-        return repositoryProduk.updateStok(kode, stokBaru);
+        for (int i = 0; i < hasil.length; i++) {
+            hasil[i] = hasil[i] && berhasilPerKode.get(daftarMutasi.get(i).getKode());
+        }
+        return hasil;
     }
-    public boolean masukStok(String kode, int jumlah) {
-        if (!ValidationUtils.isValidKodeProduk(kode) || jumlah <= 0) {
+    // Jumlahkan delta baris yang valid per kode dan tandai baris itu true di hasil;
+    // mengembalikan true kalau ada baris tidak valid. Dipakai juga oleh ServiceInventarisAsync
+    static boolean kelompokkanDelta(List<MutasiStok> daftarMutasi, boolean[] hasil, Map<String, Long> deltaPerKode) {
+        Map<String, Boolean> kodeValid = new HashMap<>();
+        boolean adaBarisTidakValid = false;
+        for (int i = 0; i < daftarMutasi.size(); i++) {
+            MutasiStok mutasi = daftarMutasi.get(i);
+            if (mutasi == null || mutasi.getJenis() == null || mutasi.getJumlah() <= 0
+                    || !kodeValid.computeIfAbsent(mutasi.getKode(), ValidationUtils::isValidKodeProduk)) {
+                adaBarisTidakValid = true;
+                continue;
+            }
+            deltaPerKode.merge(mutasi.getKode(), (long) mutasi.getDelta(), Long::sum);
+            hasil[i] = true;
+        }
+        return adaBarisTidakValid;
+    }
+    private boolean terapkanDelta(String kode, long delta) {
+        if (delta > Integer.MAX_VALUE || delta < -Integer.MAX_VALUE) {
             return false;
         }
+        if (delta > 0) {
+            return denganKunci(kode, () -> repositoryProduk.tambahStok(kode, (int) delta));
+        }
+        if (delta < 0) {
+            return denganKunci(kode, () -> repositoryProduk.kurangiStokJikaCukup(kode, (int) -delta));
+        }
+// Delta bersih nol: cukup pastikan produknya ada dan aktif
         Optional<Produk> produk = repositoryProduk.cariByKode(kode);
-        if (!produk.isPresent() || !produk.get().isAktif()) {
+        return produk.isPresent() && produk.get().isAktif();
+    }
+    // Kompensasi mode semuaAtauTidak. Pengurangan dikembalikan tanpa melihat status aktif;
+    // penambahan ditarik lagi hanya kalau stoknya masih ada. Yang gagal dilaporkan, bukan diabaikan
+    private void batalkanDelta(List<Map.Entry<String, Long>> sudahDiterapkan) {
+        List<String> gagal = new ArrayList<>();
+        for (Map.Entry<String, Long> diterapkan : sudahDiterapkan) {
+            String kode = diterapkan.getKey();
+            long delta = diterapkan.getValue();
+            boolean kembali = true;
+            if (delta < 0) {
+                kembali = denganKunci(kode, () -> repositoryProduk.kembalikanStok(kode, (int) -delta));
+            } else if (delta > 0) {
+                kembali = denganKunci(kode, () -> repositoryProduk.kurangiStokJikaCukup(kode, (int) delta));
+            }
+            if (!kembali) {
+                gagal.add(kode);
+            }
+        }
+        if (!gagal.isEmpty()) {
+            throw new IllegalStateException("Rollback batch gagal mengembalikan stok kode " + gagal);
+        }
+    }
+    public Optional<Reservasi> reservasiPesanan(Map<String, Integer> item) {
+        return reservasiPesanan(item, MASA_RESERVASI_DEFAULT);
+    }
+    // Kurangi stok semua baris pesanan sekaligus, atau tidak sama sekali. Baris diproses
+    // urut kode; kalau satu baris gagal, baris yang sudah dikurangi dikembalikan. Stripe semua
+    // kode pesanan dikunci urut indeks, jadi pesanan yang kodenya beririsan saling menunggu
+    // (tanpa deadlock) dan tidak melihat pengurangan sebagian pesanan lain. Tanpa mode kunci per
+    // kode, keluarStok/prosesBatch tidak ikut mengunci dan masih bisa melihat keadaan sementara itu.
+    public Optional<Reservasi> reservasiPesanan(Map<String, Integer> item, Duration masaBerlaku) {
+        if (item == null || item.isEmpty() || masaBerlaku == null
+                || masaBerlaku.isNegative() || masaBerlaku.isZero()) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, Integer> baris : item.entrySet()) {
+            if (!ValidationUtils.isValidKodeProduk(baris.getKey())
+                    || baris.getValue() == null || baris.getValue() <= 0) {
+                return Optional.empty();
+            }
+        }
+        Map<String, Integer> urut = new TreeMap<>(item);
+        Reservasi[] reservasi = {null};
+        // Dicatat di bawah lock yang sama supaya hapusProduk tidak lolos di antaranya
+        denganKunciSemua(urut.keySet(), () -> {
+            if (!kurangiSemua(urut)) {
+                return false;
+            }
+            reservasi[0] = new Reservasi("R" + nomorReservasi.incrementAndGet(), urut,
+                    jam.instant().plus(masaBerlaku));
+            reservasiAktif.put(reservasi[0].getId(), reservasi[0]);
+            return true;
+        });
+        return Optional.ofNullable(reservasi[0]);
+    }
+    // Stok tetap berkurang dan reservasi selesai; gagal kalau reservasi sudah kedaluwarsa
+    public boolean konfirmasiReservasi(String id) {
+        Reservasi reservasi = id != null ? reservasiAktif.get(id) : null;
+        if (reservasi == null) {
             return false;
         }
-        int stokBaru = produk.get().getStok() + jumlah;
-        return repositoryProduk.updateStok(kode, stokBaru);
+        if (reservasi.isKedaluwarsa(jam.instant())) {
+            lepaskan(reservasi);
+            return false;
+        }
+        return reservasiAktif.remove(id, reservasi);
+    }
+    public boolean batalkanReservasi(String id) {
+        Reservasi reservasi = id != null ? reservasiAktif.get(id) : null;
+        return reservasi != null && lepaskan(reservasi);
+    }
+    // Kembalikan stok reservasi yang sudah lewat masa berlakunya (keranjang yang ditinggal);
+    // dipanggil berkala oleh penjadwal aplikasi. Hasilnya jumlah reservasi yang dilepas.
+    public int lepaskanReservasiKedaluwarsa() {
+        Instant sekarang = jam.instant();
+        int jumlah = 0;
+        for (Reservasi reservasi : reservasiAktif.values()) {
+            if (reservasi.isKedaluwarsa(sekarang) && lepaskan(reservasi)) {
+                jumlah++;
+            }
+        }
+        return jumlah;
+    }
+    public int jumlahReservasiAktif() {
+        return reservasiAktif.size();
+    }
+    public void setJam(Clock jam) {
+        this.jam = jam;
+    }
+    private boolean kurangiSemua(Map<String, Integer> item) {
+        List<Map.Entry<String, Integer>> sudahDikurangi = new ArrayList<>();
+        for (Map.Entry<String, Integer> baris : item.entrySet()) {
+            if (!repositoryProduk.kurangiStokJikaCukup(baris.getKey(), baris.getValue())) {
+                kembalikanSemua("Rollback reservasi", sudahDikurangi);
+                return false;
+            }
+            sudahDikurangi.add(baris);
+        }
+        return true;
+    }
+    // remove(id, reservasi) memastikan konfirmasi, pembatalan dan pelepasan tidak saling dobel
+    private boolean lepaskan(Reservasi reservasi) {
+        return denganKunciSemua(reservasi.getItem().keySet(), () -> {
+            if (!reservasiAktif.remove(reservasi.getId(), reservasi)) {
+                return false;
+            }
+            kembalikanSemua("Pelepasan reservasi " + reservasi.getId(), reservasi.getItem().entrySet());
+            return true;
+        });
+    }
+    // Stok dikembalikan tanpa melihat status aktif (produk bisa dinonaktifkan selama reservasi);
+    // baris yang tetap gagal berarti stok hilang, jadi dilaporkan setelah semua baris dicoba
+    private void kembalikanSemua(String proses, Collection<Map.Entry<String, Integer>> baris) {
+        List<String> gagal = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : baris) {
+            if (!repositoryProduk.kembalikanStok(entry.getKey(), entry.getValue())) {
+                gagal.add(entry.getKey());
+            }
+        }
+        if (!gagal.isEmpty()) {
+            throw new IllegalStateException(proses + " gagal mengembalikan stok kode " + gagal);
+        }
+    }
+    private boolean isDireservasi(String kode) {
+        for (Reservasi reservasi : reservasiAktif.values()) {
+            if (reservasi.getItem().containsKey(kode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    private boolean denganKunciSemua(Collection<String> daftarKode, BooleanSupplier aksi) {
+        TreeSet<Integer> indeks = new TreeSet<>();
+        for (String kode : daftarKode) {
+            indeks.add(indeksStripe(stripeReservasi, kode));
+        }
+        return denganKunciBerurutan(indeks.stream().mapToInt(Integer::intValue).toArray(), 0, aksi);
+    }
+    private boolean denganKunciBerurutan(int[] indeks, int i, BooleanSupplier aksi) {
+        if (i == indeks.length) {
+            return aksi.getAsBoolean();
+        }
+        stripeReservasi[indeks[i]].lock();
+        try {
+            return denganKunciBerurutan(indeks, i + 1, aksi);
+        } finally {
+            stripeReservasi[indeks[i]].unlock();
+        }
+    }
+    private static int indeksStripe(ReentrantLock[] kunci, String kode) {
+        return (kode.hashCode() & 0x7fffffff) % kunci.length;
+    }
+    private boolean denganKunci(String kode, BooleanSupplier aksi) {
+        if (stripe == null) {
+            return aksi.getAsBoolean();
+        }
+        ReentrantLock kunci = stripe[indeksStripe(stripe, kode)];
+        kunci.lock();
+        try {
+            return aksi.getAsBoolean();
+        } finally {
+            kunci.unlock();
+        }
     }
     public List<Produk> getProdukStokMenipis() {
         return repositoryProduk.cariProdukStokMenipis();
@@ -91,18 +402,36 @@ public class ServiceInventaris {
     public List<Produk> getProdukStokHabis() {
         return repositoryProduk.cariProdukStokHabis();
     }
+    // Katalog per halaman terurut kode: kirim kode produk terakhir untuk halaman berikutnya
+    public List<Produk> getProdukSetelah(String kodeTerakhir, int batas) {
+        if (batas <= 0) {
+            return new ArrayList<>();
+        }
+        return repositoryProduk.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+    // Varian streaming: produk dikirim satu per satu ke aksi, tanpa List hasil
+    public void untukSetiapProdukByKategori(String kategori, Consumer<? super Produk> aksi) {
+        if (kategori == null || aksi == null) {
+            return;
+        }
+        repositoryProduk.untukSetiapByKategori(kategori, aksi);
+    }
+    public void untukSetiapProdukByStatusStok(StatusStok status, Consumer<? super Produk> aksi) {
+        if (status == null || aksi == null) {
+            return;
+        }
+        repositoryProduk.untukSetiapByStatusStok(status, aksi);
+    }
+    public boolean ubahStatusAktif(String kode, boolean aktif) {
+        if (!ValidationUtils.isValidKodeProduk(kode)) {
+            return false;
+        }
+        return repositoryProduk.updateAktif(kode, aktif);
+    }
     public double hitungTotalNilaiInventaris() {
-        List<Produk> semuaProduk = repositoryProduk.cariSemua();
-        return semuaProduk.stream()
-                .filter(Produk::isAktif)
-                .mapToDouble(p -> p.getHarga() * p.getStok())
-                .sum();
+        return repositoryProduk.hitungTotalNilai();
     }
     public int hitungTotalStok() {
-        List<Produk> semuaProduk = repositoryProduk.cariSemua();
-        return semuaProduk.stream()
-                .filter(Produk::isAktif)
-                .mapToInt(Produk::getStok)
-                .sum();
+        return repositoryProduk.hitungTotalStok();
     }
 }
\ No newline at end of file
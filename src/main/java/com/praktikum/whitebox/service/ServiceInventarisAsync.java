@@ -0,0 +1,401 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.MutasiStok;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.Reservasi;
+import com.praktikum.whitebox.repository.RepositoryProdukAsync;
+import com.praktikum.whitebox.util.ValidationUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versi non-blocking dari {@link ServiceInventaris} di atas {@link RepositoryProdukAsync}.
+ * Aturan validasinya sama; input yang tidak valid langsung menghasilkan future yang sudah
+ * selesai tanpa memanggil repository. Langkah yang bergantung pada hasil sebelumnya
+ * (misalnya cek lalu hapus) dirangkai dengan thenCompose, jadi tidak ada thread yang menunggu.
+ * <p>
+ * Tidak ada lock per kode seperti di {@link ServiceInventaris}: batch dan reservasi dijaga
+ * dengan kompensasi (stok yang sudah berubah dikembalikan kalau langkah berikutnya gagal),
+ * jadi pembaca lain bisa sempat melihat perubahan sebagian selama prosesnya berjalan.
+ * Reservasi dicatat di service ini sendiri, terpisah dari reservasi {@link ServiceInventaris}.
+ */
+public class ServiceInventarisAsync {
+    private static final Duration MASA_RESERVASI_DEFAULT = Duration.ofMinutes(15);
+
+    private final RepositoryProdukAsync repositoryProduk;
+    private final Map<String, Reservasi> reservasiAktif = new ConcurrentHashMap<>();
+    // Reservasi yang stoknya sedang dikurangi; ikut dicek hapusProduk supaya produknya
+    // tidak terhapus di tengah proses
+    private final Map<String, Reservasi> reservasiDiproses = new ConcurrentHashMap<>();
+    private final AtomicLong nomorReservasi = new AtomicLong();
+    private volatile Clock jam = Clock.systemUTC();
+
+    public ServiceInventarisAsync(RepositoryProdukAsync repositoryProduk) {
+        this.repositoryProduk = repositoryProduk;
+    }
+
+    public CompletableFuture<Boolean> tambahProduk(Produk produk) {
+        if (!ValidationUtils.isValidProduk(produk)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.cariByKode(produk.getKode())
+                .thenCompose(ada -> ada.isPresent()
+                        ? CompletableFuture.completedFuture(false)
+                        : repositoryProduk.simpan(produk));
+    }
+
+    public CompletableFuture<Boolean> hapusProduk(String kode) {
+        if (!ValidationUtils.isValidKodeProduk(kode)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        // Tidak bisa hapus produk yang tidak ada, masih ada stoknya, atau sedang direservasi
+        return repositoryProduk.cariByKode(kode)
+                .thenCompose(produk -> !produk.isPresent() || produk.get().getStok() > 0 || isDireservasi(kode)
+                        ? CompletableFuture.completedFuture(false)
+                        : repositoryProduk.hapus(kode));
+    }
+
+    public CompletableFuture<Optional<Produk>> cariProdukByKode(String kode) {
+        if (!ValidationUtils.isValidKodeProduk(kode)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return repositoryProduk.cariByKode(kode);
+    }
+
+    // Pencarian semua kode dikirim bersamaan; kode tidak valid atau tidak ditemukan dilewati
+    public CompletableFuture<Map<String, Produk>> cariProdukByKodeBanyak(Collection<String> daftarKode) {
+        if (daftarKode == null || daftarKode.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        List<String> kodeValid = new ArrayList<>(daftarKode.size());
+        for (String kode : daftarKode) {
+            if (ValidationUtils.isValidKodeProduk(kode)) {
+                kodeValid.add(kode);
+            }
+        }
+        if (kodeValid.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        return repositoryProduk.cariByKodeBanyak(kodeValid);
+    }
+
+    public CompletableFuture<List<Produk>> cariProdukByNama(String nama) {
+        if (nama == null || nama.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return repositoryProduk.cariByNama(nama);
+    }
+
+    // Pencarian per halaman untuk type-ahead: awalan atau substring, hasil terurut nama
+    public CompletableFuture<List<Produk>> cariProdukByNama(String nama, ModePencarian mode, int offset, int batas) {
+        if (nama == null || nama.trim().isEmpty() || mode == null || offset < 0 || batas <= 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return repositoryProduk.cariByNama(nama, mode, offset, batas);
+    }
+
+    public CompletableFuture<List<Produk>> cariProdukByKategori(String kategori) {
+        return repositoryProduk.cariByKategori(kategori);
+    }
+
+    public CompletableFuture<Boolean> updateStok(String kode, int stokBaru) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || stokBaru < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.cariByKode(kode)
+                .thenCompose(produk -> produk.isPresent()
+                        ? repositoryProduk.updateStok(kode, stokBaru)
+                        : CompletableFuture.completedFuture(false));
+    }
+
+    public CompletableFuture<Boolean> updateStokMinimum(String kode, int stokMinimum) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || !ValidationUtils.isValidStokMinimum(stokMinimum)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.updateStokMinimum(kode, stokMinimum);
+    }
+
+    public CompletableFuture<Boolean> keluarStok(String kode, int jumlah) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || jumlah <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.kurangiStokJikaCukup(kode, jumlah);
+    }
+
+    public CompletableFuture<Boolean> masukStok(String kode, int jumlah) {
+        if (!ValidationUtils.isValidKodeProduk(kode) || jumlah <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.tambahStok(kode, jumlah);
+    }
+
+    public CompletableFuture<boolean[]> prosesBatch(List<MutasiStok> daftarMutasi) {
+        return prosesBatch(daftarMutasi, false);
+    }
+
+    // Sama dengan ServiceInventaris.prosesBatch, tapi delta bersih semua kode diterapkan
+    // bersamaan. Mode semuaAtauTidak: kalau ada kode yang gagal, delta kode lain yang sudah
+    // diterapkan dibalik setelahnya; future gagal dengan IllegalStateException kalau pembalikan
+    // itu sendiri gagal
+    public CompletableFuture<boolean[]> prosesBatch(List<MutasiStok> daftarMutasi, boolean semuaAtauTidak) {
+        if (daftarMutasi == null || daftarMutasi.isEmpty()) {
+            return CompletableFuture.completedFuture(new boolean[0]);
+        }
+        boolean[] hasil = new boolean[daftarMutasi.size()];
+        Map<String, Long> deltaPerKode = new LinkedHashMap<>();
+        boolean adaBarisTidakValid = ServiceInventaris.kelompokkanDelta(daftarMutasi, hasil, deltaPerKode);
+        if (semuaAtauTidak && adaBarisTidakValid) {
+            return CompletableFuture.completedFuture(new boolean[daftarMutasi.size()]);
+        }
+        List<Map.Entry<String, Long>> daftarDelta = new ArrayList<>(deltaPerKode.entrySet());
+        List<CompletableFuture<Boolean>> penerapan = new ArrayList<>(daftarDelta.size());
+        for (Map.Entry<String, Long> entry : daftarDelta) {
+            penerapan.add(terapkanDelta(entry.getKey(), entry.getValue()));
+        }
+        return CompletableFuture.allOf(penerapan.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(v -> {
+                    Map<String, Boolean> berhasilPerKode = new HashMap<>();
+                    List<Map.Entry<String, Long>> sudahDiterapkan = new ArrayList<>();
+                    for (int i = 0; i < daftarDelta.size(); i++) {
+                        boolean berhasil = penerapan.get(i).join();
+                        if (berhasil) {
+                            sudahDiterapkan.add(daftarDelta.get(i));
+                        }
+                        berhasilPerKode.put(daftarDelta.get(i).getKey(), berhasil);
+                    }
+                    if (semuaAtauTidak && sudahDiterapkan.size() < daftarDelta.size()) {
+                        return batalkanDelta(sudahDiterapkan)
+                                .thenApply(x -> new boolean[daftarMutasi.size()]);
+                    }
+                    for (int i = 0; i < hasil.length; i++) {
+                        hasil[i] = hasil[i] && berhasilPerKode.get(daftarMutasi.get(i).getKode());
+                    }
+                    return CompletableFuture.completedFuture(hasil);
+                });
+    }
+
+    public CompletableFuture<Optional<Reservasi>> reservasiPesanan(Map<String, Integer> item) {
+        return reservasiPesanan(item, MASA_RESERVASI_DEFAULT);
+    }
+
+    // Kurangi stok semua baris pesanan, atau tidak sama sekali. Baris dikurangi satu per satu
+    // urut kode; kalau satu baris gagal, baris yang sudah dikurangi dikembalikan
+    public CompletableFuture<Optional<Reservasi>> reservasiPesanan(Map<String, Integer> item, Duration masaBerlaku) {
+        if (item == null || item.isEmpty() || masaBerlaku == null
+                || masaBerlaku.isNegative() || masaBerlaku.isZero()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        for (Map.Entry<String, Integer> baris : item.entrySet()) {
+            if (!ValidationUtils.isValidKodeProduk(baris.getKey())
+                    || baris.getValue() == null || baris.getValue() <= 0) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+        }
+        Map<String, Integer> urut = new TreeMap<>(item);
+        Reservasi reservasi = new Reservasi("R" + nomorReservasi.incrementAndGet(), urut,
+                jam.instant().plus(masaBerlaku));
+        reservasiDiproses.put(reservasi.getId(), reservasi);
+        List<Map.Entry<String, Integer>> daftarBaris = new ArrayList<>(urut.entrySet());
+        return kurangiBerurutan(daftarBaris, 0)
+                .thenCompose(jumlahDikurangi -> {
+                    if (jumlahDikurangi == daftarBaris.size()) {
+                        // Dicatat aktif sebelum dilepas dari reservasiDiproses, jadi tidak ada celah untuk hapusProduk
+                        reservasiAktif.put(reservasi.getId(), reservasi);
+                        return CompletableFuture.completedFuture(Optional.of(reservasi));
+                    }
+                    return kembalikanSemua("Rollback reservasi", daftarBaris.subList(0, jumlahDikurangi))
+                            .thenApply(v -> Optional.<Reservasi>empty());
+                })
+                .whenComplete((hasil, error) -> reservasiDiproses.remove(reservasi.getId()));
+    }
+
+    // Stok tetap berkurang dan reservasi selesai; gagal kalau reservasi sudah kedaluwarsa
+    public CompletableFuture<Boolean> konfirmasiReservasi(String id) {
+        Reservasi reservasi = id != null ? reservasiAktif.get(id) : null;
+        if (reservasi == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (reservasi.isKedaluwarsa(jam.instant())) {
+            return lepaskan(reservasi).thenApply(dilepas -> false);
+        }
+        return CompletableFuture.completedFuture(reservasiAktif.remove(id, reservasi));
+    }
+
+    public CompletableFuture<Boolean> batalkanReservasi(String id) {
+        Reservasi reservasi = id != null ? reservasiAktif.get(id) : null;
+        if (reservasi == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return lepaskan(reservasi);
+    }
+
+    // Kembalikan stok reservasi yang sudah lewat masa berlakunya; hasilnya jumlah reservasi yang dilepas
+    public CompletableFuture<Integer> lepaskanReservasiKedaluwarsa() {
+        Instant sekarang = jam.instant();
+        List<CompletableFuture<Boolean>> pelepasan = new ArrayList<>();
+        for (Reservasi reservasi : reservasiAktif.values()) {
+            if (reservasi.isKedaluwarsa(sekarang)) {
+                pelepasan.add(lepaskan(reservasi));
+            }
+        }
+        return CompletableFuture.allOf(pelepasan.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    int jumlah = 0;
+                    for (CompletableFuture<Boolean> dilepas : pelepasan) {
+                        if (dilepas.join()) {
+                            jumlah++;
+                        }
+                    }
+                    return jumlah;
+                });
+    }
+
+    public int jumlahReservasiAktif() {
+        return reservasiAktif.size();
+    }
+
+    public void setJam(Clock jam) {
+        this.jam = jam;
+    }
+
+    public CompletableFuture<List<Produk>> getProdukSetelah(String kodeTerakhir, int batas) {
+        if (batas <= 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return repositoryProduk.cariSemuaSetelah(kodeTerakhir, batas);
+    }
+
+    public CompletableFuture<Boolean> ubahStatusAktif(String kode, boolean aktif) {
+        if (!ValidationUtils.isValidKodeProduk(kode)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repositoryProduk.updateAktif(kode, aktif);
+    }
+
+    public CompletableFuture<List<Produk>> getProdukStokMenipis() {
+        return repositoryProduk.cariProdukStokMenipis();
+    }
+
+    public CompletableFuture<List<Produk>> getProdukStokHabis() {
+        return repositoryProduk.cariProdukStokHabis();
+    }
+
+    public CompletableFuture<Double> hitungTotalNilaiInventaris() {
+        return repositoryProduk.hitungTotalNilai();
+    }
+
+    public CompletableFuture<Integer> hitungTotalStok() {
+        return repositoryProduk.hitungTotalStok();
+    }
+
+    private CompletableFuture<Boolean> terapkanDelta(String kode, long delta) {
+        if (delta > Integer.MAX_VALUE || delta < -Integer.MAX_VALUE) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (delta > 0) {
+            return repositoryProduk.tambahStok(kode, (int) delta);
+        }
+        if (delta < 0) {
+            return repositoryProduk.kurangiStokJikaCukup(kode, (int) -delta);
+        }
+        // Delta bersih nol: cukup pastikan produknya ada dan aktif
+        return repositoryProduk.cariByKode(kode)
+                .thenApply(produk -> produk.isPresent() && produk.get().isAktif());
+    }
+
+    // Balik delta yang sudah diterapkan: pengurangan dikembalikan tanpa melihat status aktif,
+    // penambahan dikurangi lagi (gagal kalau stok tambahan itu sudah terpakai)
+    private CompletableFuture<Void> batalkanDelta(List<Map.Entry<String, Long>> sudahDiterapkan) {
+        List<String> daftarKode = new ArrayList<>(sudahDiterapkan.size());
+        List<CompletableFuture<Boolean>> pembalikan = new ArrayList<>(sudahDiterapkan.size());
+        for (Map.Entry<String, Long> entry : sudahDiterapkan) {
+            long delta = entry.getValue();
+            daftarKode.add(entry.getKey());
+            if (delta < 0) {
+                pembalikan.add(repositoryProduk.kembalikanStok(entry.getKey(), (int) -delta));
+            } else if (delta > 0) {
+                pembalikan.add(repositoryProduk.kurangiStokJikaCukup(entry.getKey(), (int) delta));
+            } else {
+                pembalikan.add(CompletableFuture.completedFuture(true));
+            }
+        }
+        return periksaPengembalian("Rollback batch", daftarKode, pembalikan);
+    }
+
+    // Jumlah baris yang berhasil dikurangi sebelum ada baris yang gagal
+    private CompletableFuture<Integer> kurangiBerurutan(List<Map.Entry<String, Integer>> daftarBaris, int indeks) {
+        if (indeks == daftarBaris.size()) {
+            return CompletableFuture.completedFuture(indeks);
+        }
+        Map.Entry<String, Integer> baris = daftarBaris.get(indeks);
+        return repositoryProduk.kurangiStokJikaCukup(baris.getKey(), baris.getValue())
+                .thenCompose(berhasil -> berhasil
+                        ? kurangiBerurutan(daftarBaris, indeks + 1)
+                        : CompletableFuture.completedFuture(indeks));
+    }
+
+    // remove(id, reservasi) memastikan konfirmasi, pembatalan dan pelepasan tidak saling dobel
+    private CompletableFuture<Boolean> lepaskan(Reservasi reservasi) {
+        if (!reservasiAktif.remove(reservasi.getId(), reservasi)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return kembalikanSemua("Pelepasan reservasi " + reservasi.getId(), reservasi.getItem().entrySet())
+                .thenApply(v -> true);
+    }
+
+    // Stok dikembalikan tanpa melihat status aktif (produk bisa dinonaktifkan selama reservasi)
+    private CompletableFuture<Void> kembalikanSemua(String proses, Collection<Map.Entry<String, Integer>> daftarBaris) {
+        List<String> daftarKode = new ArrayList<>(daftarBaris.size());
+        List<CompletableFuture<Boolean>> pengembalian = new ArrayList<>(daftarBaris.size());
+        for (Map.Entry<String, Integer> baris : daftarBaris) {
+            daftarKode.add(baris.getKey());
+            pengembalian.add(repositoryProduk.kembalikanStok(baris.getKey(), baris.getValue()));
+        }
+        return periksaPengembalian(proses, daftarKode, pengembalian);
+    }
+
+    // Kode yang tetap gagal berarti stok hilang, jadi dilaporkan setelah semua pengembalian selesai
+    private static CompletableFuture<Void> periksaPengembalian(String proses, List<String> daftarKode,
+                                                               List<CompletableFuture<Boolean>> pengembalian) {
+        return CompletableFuture.allOf(pengembalian.toArray(new CompletableFuture<?>[0]))
+                .thenRun(() -> {
+                    List<String> gagal = new ArrayList<>();
+                    for (int i = 0; i < daftarKode.size(); i++) {
+                        if (!pengembalian.get(i).join()) {
+                            gagal.add(daftarKode.get(i));
+                        }
+                    }
+                    if (!gagal.isEmpty()) {
+                        throw new IllegalStateException(proses + " gagal mengembalikan stok kode " + gagal);
+                    }
+                });
+    }
+
+    private boolean isDireservasi(String kode) {
+        for (Reservasi reservasi : reservasiAktif.values()) {
+            if (reservasi.getItem().containsKey(kode)) {
+                return true;
+            }
+        }
+        for (Reservasi reservasi : reservasiDiproses.values()) {
+            if (reservasi.getItem().containsKey(kode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
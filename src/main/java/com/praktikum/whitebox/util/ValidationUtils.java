@@ -4,12 +4,33 @@ import com.praktikum.whitebox.model.Kategori;
 import com.praktikum.whitebox.model.Produk;
 
 public class ValidationUtils {
+    // Validasi kode produk (3-10 karakter huruf/angka, spasi di awal/akhir diabaikan).
+    // Dicek per karakter dengan batas indeks, tanpa trim() dan regex, supaya tidak ada alokasi.
     public static boolean isValidKodeProduk(String kode) {
-        if (kode == null || kode.trim().isEmpty()) {
+        if (kode == null) {
             return false;
         }
-        String kodeBersih = kode.trim();
-        return kodeBersih.matches("^[A-Za-z0-9]{3,10}$");
+        int awal = 0;
+        int akhir = kode.length();
+        while (awal < akhir && kode.charAt(awal) <= ' ') {
+            awal++;
+        }
+        while (akhir > awal && kode.charAt(akhir - 1) <= ' ') {
+            akhir--;
+        }
+        int panjang = akhir - awal;
+        if (panjang < 3 || panjang > 10) {
+            return false;
+        }
+        for (int i = awal; i < akhir; i++) {
+            if (!isAlfanumerikAscii(kode.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static boolean isAlfanumerikAscii(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
     }
 // Validasi nama (3-100 karakter, boleh huruf, angka, spasi)
 public static boolean isValidNama(String nama) {
@@ -0,0 +1,71 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.AliranPeristiwa;
+import com.praktikum.whitebox.repository.RepositoryProduk;
+import com.praktikum.whitebox.repository.RepositoryProdukCdc;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Biaya jalur tulis dengan aliran peristiwa: tambahStok langsung ke repository dibanding lewat
+// RepositoryProdukCdc dengan 0, 1 dan 4 pelanggan yang memproses per batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AliranPeristiwaBenchmark {
+    private static final int JUMLAH_PRODUK = 10_000;
+
+    @Param({"-1", "0", "1", "4"})
+    private int jumlahPelanggan;
+
+    private RepositoryProduk repository;
+    private AliranPeristiwa aliran;
+    private String[] kode;
+    private final LongAdder diterima = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        RepositoryProdukInMemory dasar = new RepositoryProdukInMemory();
+        kode = new String[JUMLAH_PRODUK];
+        for (int i = 0; i < JUMLAH_PRODUK; i++) {
+            kode[i] = String.format("P%06d", i);
+            dasar.simpan(new Produk(kode[i], "Produk " + i, "Kategori " + (i % 50), 1000 + i, 0, 10));
+        }
+        aliran = new AliranPeristiwa(1 << 16);
+        for (int i = 0; i < jumlahPelanggan; i++) {
+            aliran.berlangganan(batch -> diterima.add(batch.size()));
+        }
+        // -1: tanpa decorator, sebagai pembanding
+        repository = jumlahPelanggan < 0 ? dasar : new RepositoryProdukCdc(dasar, aliran);
+    }
+
+    @TearDown
+    public void tearDown() {
+        aliran.close();
+    }
+
+    @Benchmark
+    public boolean tambahStok() {
+        return repository.tambahStok(kode[ThreadLocalRandom.current().nextInt(JUMLAH_PRODUK)], 1);
+    }
+}
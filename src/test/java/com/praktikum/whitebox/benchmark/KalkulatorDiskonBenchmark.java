@@ -0,0 +1,66 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.TipePelanggan;
+import com.praktikum.whitebox.service.KalkulatorDiskon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Reprice keranjang 10k baris: API per baris (String) dibanding API bulk array primitif
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KalkulatorDiskonBenchmark {
+    private static final int JUMLAH_BARIS = 10_000;
+
+    private final KalkulatorDiskon kalkulator = new KalkulatorDiskon();
+    private double[] harga;
+    private int[] kuantitas;
+    private TipePelanggan[] tipe;
+    private String[] tipeTeks;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        harga = new double[JUMLAH_BARIS];
+        kuantitas = new int[JUMLAH_BARIS];
+        tipe = new TipePelanggan[JUMLAH_BARIS];
+        tipeTeks = new String[JUMLAH_BARIS];
+        out = new double[JUMLAH_BARIS];
+        TipePelanggan[] semuaTipe = TipePelanggan.values();
+        for (int i = 0; i < JUMLAH_BARIS; i++) {
+            harga[i] = 1000 + random.nextInt(100_000);
+            kuantitas[i] = 1 + random.nextInt(150);
+            tipe[i] = semuaTipe[random.nextInt(semuaTipe.length)];
+            tipeTeks[i] = tipe[i].name();
+        }
+    }
+
+    @Benchmark
+    public void perBarisTeks(Blackhole blackhole) {
+        for (int i = 0; i < JUMLAH_BARIS; i++) {
+            blackhole.consume(kalkulator.hitungDiskon(harga[i], kuantitas[i], tipeTeks[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] bulkArray() {
+        kalkulator.hitungDiskon(harga, kuantitas, tipe, out);
+        return out;
+    }
+}
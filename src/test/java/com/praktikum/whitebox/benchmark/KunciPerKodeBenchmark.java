@@ -0,0 +1,121 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProduk;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import com.praktikum.whitebox.service.ServiceInventaris;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Kontensi mode kunci per kode di ServiceInventaris: 1 stripe (setara lock global) vs 64 stripe,
+// dengan kode panas (90% mutasi ke 10 kode) dan dingin (acak merata)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class KunciPerKodeBenchmark {
+    private static final int JUMLAH_PRODUK = 10_000;
+    private static final int JUMLAH_PANAS = 10;
+
+    @Param({"1", "64"})
+    private int jumlahStripe;
+
+    @Param({"panas", "dingin"})
+    private String distribusi;
+
+    private ServiceInventaris service;
+    private String[] kode;
+
+    @Setup
+    public void setUp() {
+        RepositoryProdukInMemory repository = new RepositoryProdukInMemory();
+        kode = new String[JUMLAH_PRODUK];
+        for (int i = 0; i < JUMLAH_PRODUK; i++) {
+            kode[i] = String.format("P%06d", i);
+            repository.simpan(new Produk(kode[i], "Produk " + i, "Kategori " + (i % 50),
+                    1000 + i, 1_000_000, 10));
+        }
+        service = new ServiceInventaris(new RepositoryTanpaAtomik(repository), jumlahStripe);
+    }
+
+    @Benchmark
+    public boolean mutasiStok() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = "panas".equals(distribusi) && random.nextInt(10) != 0
+                ? random.nextInt(JUMLAH_PANAS)
+                : random.nextInt(JUMLAH_PRODUK);
+        return service.keluarStok(kode[i], 1) & service.masukStok(kode[i], 1);
+    }
+
+    // Hanya meneruskan method abstrak, jadi mutasi stok memakai versi bawaan baca-lalu-tulis
+    private static class RepositoryTanpaAtomik implements RepositoryProduk {
+        private final RepositoryProduk delegate;
+
+        RepositoryTanpaAtomik(RepositoryProduk delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean simpan(Produk produk) {
+            return delegate.simpan(produk);
+        }
+
+        @Override
+        public Optional<Produk> cariByKode(String kode) {
+            return delegate.cariByKode(kode);
+        }
+
+        @Override
+        public List<Produk> cariByNama(String nama) {
+            return delegate.cariByNama(nama);
+        }
+
+        @Override
+        public List<Produk> cariByKategori(String kategori) {
+            return delegate.cariByKategori(kategori);
+        }
+
+        @Override
+        public List<Produk> cariProdukStokMenipis() {
+            return delegate.cariProdukStokMenipis();
+        }
+
+        @Override
+        public List<Produk> cariProdukStokHabis() {
+            return delegate.cariProdukStokHabis();
+        }
+
+        @Override
+        public boolean hapus(String kode) {
+            return delegate.hapus(kode);
+        }
+
+        @Override
+        public boolean updateStok(String kode, int stokBaru) {
+            return delegate.updateStok(kode, stokBaru);
+        }
+
+        @Override
+        public List<Produk> cariSemua() {
+            return delegate.cariSemua();
+        }
+    }
+}
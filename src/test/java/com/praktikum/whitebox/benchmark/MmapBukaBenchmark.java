@@ -0,0 +1,99 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProdukMmap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Waktu membuka RepositoryProdukMmap: setelah close normal (indeks tersimpan langsung dipakai)
+// dibanding setelah crash (indeks dibangun ulang dengan memindai semua rekaman)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MmapBukaBenchmark {
+    // Offset flag bersih di header file
+    private static final int POS_BERSIH = 16;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int jumlahProduk;
+
+    private Path dir;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mmap-buka");
+        file = dir.resolve("produk.dat");
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            List<Produk> batch = new ArrayList<>();
+            for (int i = 0; i < jumlahProduk; i++) {
+                batch.add(new Produk("P" + i, "Produk " + i, "Kategori " + (i % 200), 1000 + (i % 5000), i % 100, 10));
+                if (batch.size() == 10000) {
+                    repository.simpanSemua(batch);
+                    batch.clear();
+                }
+            }
+            repository.simpanSemua(batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> isi = Files.list(dir)) {
+            for (Path path : isi.toList()) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public int bukaSetelahClose() throws IOException {
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            return repository.jumlahProduk();
+        }
+    }
+
+    @Benchmark
+    public int bukaSetelahCrash(Kotor kotor) throws IOException {
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            return repository.jumlahProduk();
+        }
+    }
+
+    // Menghapus flag bersih sebelum setiap pemanggilan, seolah proses sebelumnya crash
+    @State(Scope.Benchmark)
+    public static class Kotor {
+        @Setup(Level.Invocation)
+        public void tandaiKotor(MmapBukaBenchmark benchmark) throws IOException {
+            try (FileChannel channel = FileChannel.open(benchmark.file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(4), POS_BERSIH);
+            }
+        }
+    }
+}
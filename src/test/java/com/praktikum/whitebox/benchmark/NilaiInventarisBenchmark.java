@@ -0,0 +1,67 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import com.praktikum.whitebox.repository.RepositoryProdukKolom;
+import com.praktikum.whitebox.service.ServiceInventaris;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// hitungTotalNilaiInventaris (total berjalan) dibanding hitung ulang penuh lewat cariSemua()
+// dan pindai penuh di array kolom
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class NilaiInventarisBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    private int jumlahProduk;
+
+    private RepositoryProdukInMemory repository;
+    private RepositoryProdukKolom kolom;
+    private ServiceInventaris service;
+
+    @Setup
+    public void setUp() {
+        repository = new RepositoryProdukInMemory();
+        for (int i = 0; i < jumlahProduk; i++) {
+            Produk produk = new Produk("P" + i, "Produk " + i, "Kategori " + (i % 200),
+                    1000 + (i % 5000), i % 100, 10);
+            produk.setAktif(i % 10 != 0);
+            repository.simpan(produk);
+        }
+        kolom = new RepositoryProdukKolom(repository);
+        service = new ServiceInventaris(repository);
+    }
+
+    @Benchmark
+    public double totalBerjalan() {
+        return service.hitungTotalNilaiInventaris();
+    }
+
+    @Benchmark
+    public double hitungUlangPenuh() {
+        return repository.cariSemua().stream()
+                .filter(Produk::isAktif)
+                .mapToDouble(p -> p.getHarga() * p.getStok())
+                .sum();
+    }
+
+    @Benchmark
+    public double pindaiKolom() {
+        return kolom.hitungTotalNilai();
+    }
+}
@@ -0,0 +1,63 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import com.praktikum.whitebox.service.ServiceInventaris;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput keluarStok/masukStok di atas RepositoryProdukInMemory, 1 thread dan 4 thread
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceInventarisBenchmark {
+    private static final int JUMLAH_PRODUK = 10_000;
+
+    private ServiceInventaris service;
+    private String[] kode;
+
+    @Setup
+    public void setUp() {
+        RepositoryProdukInMemory repository = new RepositoryProdukInMemory();
+        kode = new String[JUMLAH_PRODUK];
+        for (int i = 0; i < JUMLAH_PRODUK; i++) {
+            kode[i] = String.format("P%06d", i);
+            repository.simpan(new Produk(kode[i], "Produk " + i, "Kategori " + (i % 50),
+                    1000 + i, 1_000_000, 10));
+        }
+        service = new ServiceInventaris(repository);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean mutasiStokSatuThread() {
+        return mutasiStok();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean mutasiStokEmpatThread() {
+        return mutasiStok();
+    }
+
+    // Keluar lalu masuk dengan jumlah sama supaya stok tidak habis selama pengukuran
+    private boolean mutasiStok() {
+        String k = kode[ThreadLocalRandom.current().nextInt(JUMLAH_PRODUK)];
+        return service.keluarStok(k, 1) & service.masukStok(k, 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.praktikum.whitebox.benchmark;
+
+import com.praktikum.whitebox.util.ValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Bandingkan validasi kode lama (trim + String.matches) dengan pemindaian karakter.
+// Jalankan dengan -prof gc untuk melihat alokasi per operasi.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationUtilsBenchmark {
+    @Param({"P001", "  ABC1234567 ", "@@@"})
+    private String kode;
+
+    @Benchmark
+    public boolean regexLama() {
+        if (kode == null || kode.trim().isEmpty()) {
+            return false;
+        }
+        return kode.trim().matches("^[A-Za-z0-9]{3,10}$");
+    }
+
+    @Benchmark
+    public boolean pemindaianKarakter() {
+        return ValidationUtils.isValidKodeProduk(kode);
+    }
+}
@@ -30,6 +30,20 @@ public class ProdukTest {
         assertFalse(produk.isStokMenipis());
         assertFalse(produk.isStokHabis());
     }
+    @ParameterizedTest
+    @DisplayName("Test getStatusStok sesuai batas stok minimum")
+    @CsvSource({
+            "10, 5, AMAN",
+            "5, 5, MENIPIS",
+            "1, 5, MENIPIS",
+            "0, 5, HABIS",
+            "0, 0, HABIS"
+    })
+    void testGetStatusStok(int stok, int stokMinimum, StatusStok expected) {
+        produk.setStok(stok);
+        produk.setStokMinimum(stokMinimum);
+        assertEquals(expected, produk.getStatusStok());
+    }
     @Test
     @DisplayName("Test status stok - stok menipis")
     void testStokMenipis() {
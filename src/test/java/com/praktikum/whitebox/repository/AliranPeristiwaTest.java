@@ -0,0 +1,109 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.PeristiwaProduk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Aliran Peristiwa (ring buffer)")
+class AliranPeristiwaTest {
+
+    @Test
+    @DisplayName("Kapasitas harus pangkat dua")
+    void testKapasitasTidakValid() {
+        assertThrows(IllegalArgumentException.class, () -> new AliranPeristiwa(0));
+        assertThrows(IllegalArgumentException.class, () -> new AliranPeristiwa(1000));
+    }
+
+    @Test
+    @DisplayName("Banyak penerbit, setiap pelanggan menerima semua peristiwa berurutan tanpa celah")
+    void testUrutanDenganBanyakPenerbit() throws InterruptedException {
+        // Ring kecil supaya penerbit beberapa kali harus menunggu pelanggan
+        AliranPeristiwa aliran = new AliranPeristiwa(64);
+        int jumlahPelanggan = 2;
+        AtomicLong[] terakhir = new AtomicLong[jumlahPelanggan];
+        boolean[] adaCelah = new boolean[jumlahPelanggan];
+        List<AliranPeristiwa.Langganan> daftar = new ArrayList<>();
+        for (int i = 0; i < jumlahPelanggan; i++) {
+            int indeks = i;
+            terakhir[i] = new AtomicLong();
+            daftar.add(aliran.berlangganan(batch -> {
+                for (PeristiwaProduk peristiwa : batch) {
+                    if (peristiwa.getSekuens() != terakhir[indeks].get() + 1) {
+                        adaCelah[indeks] = true;
+                    }
+                    terakhir[indeks].set(peristiwa.getSekuens());
+                }
+            }, 16));
+        }
+
+        int jumlahThread = 4;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(jumlahThread);
+        for (int t = 0; t < jumlahThread; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    aliran.terbitkan(PeristiwaProduk.Jenis.STOK_MASUK, "P001", 1, null);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        aliran.close();
+
+        long total = (long) jumlahThread * perThread;
+        assertEquals(total, aliran.getSekuensTerakhir());
+        for (int i = 0; i < jumlahPelanggan; i++) {
+            assertFalse(adaCelah[i]);
+            assertEquals(total, terakhir[i].get());
+            assertEquals(total, daftar.get(i).getSekuensTerakhir());
+        }
+    }
+
+    @Test
+    @DisplayName("Pelanggan yang gagal dilepas sehingga penerbit tidak tertahan")
+    void testPelangganGagalDilepas() throws InterruptedException {
+        AliranPeristiwa aliran = new AliranPeristiwa(4);
+        AliranPeristiwa.Langganan gagal = aliran.berlangganan(batch -> {
+            throw new IllegalStateException("Indeks pencarian tidak tersedia");
+        });
+        List<PeristiwaProduk> diterima = Collections.synchronizedList(new ArrayList<>());
+        AliranPeristiwa.Langganan sehat = aliran.berlangganan(diterima::addAll);
+
+        for (int i = 0; i < 100; i++) {
+            aliran.terbitkan(PeristiwaProduk.Jenis.DIHAPUS, "P" + i, 0, null);
+        }
+        sehat.close();
+
+        assertEquals(100, diterima.size());
+        assertFalse(gagal.isAktif());
+        assertInstanceOf(IllegalStateException.class, gagal.getKesalahan());
+    }
+
+    @Test
+    @DisplayName("Pelanggan yang gagal karena Error juga dilepas")
+    void testPelangganErrorDilepas() {
+        AliranPeristiwa aliran = new AliranPeristiwa(4);
+        AliranPeristiwa.Langganan gagal = aliran.berlangganan(batch -> {
+            throw new StackOverflowError();
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 100; i++) {
+                aliran.terbitkan(PeristiwaProduk.Jenis.DIHAPUS, "P" + i, 0, null);
+            }
+        });
+        assertFalse(gagal.isAktif());
+        assertInstanceOf(StackOverflowError.class, gagal.getKesalahan());
+    }
+}
@@ -0,0 +1,95 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Indeks Nama")
+class IndeksNamaTest {
+    private IndeksNama indeks;
+
+    @BeforeEach
+    void setUp() {
+        indeks = new IndeksNama();
+        indeks.tambah("P001", "Laptop Gaming");
+        indeks.tambah("P002", "Laptop Kantor");
+        indeks.tambah("P003", "Mouse Gaming");
+        indeks.tambah("P004", "Kaos Polos");
+    }
+
+    @Test
+    @DisplayName("Cari awalan tidak peka huruf besar/kecil dan terurut nama")
+    void testCariAwalan() {
+        assertEquals(Arrays.asList("P001", "P002"), indeks.cari("LAP", ModePencarian.AWALAN, 0, 10));
+        assertTrue(indeks.cari("gaming", ModePencarian.AWALAN, 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Cari substring memakai trigram maupun teks pendek")
+    void testCariSubstring() {
+        assertEquals(Arrays.asList("P001", "P003"), indeks.cari("Gaming", ModePencarian.MENGANDUNG, 0, 10));
+        assertEquals(Arrays.asList("P004"), indeks.cari("os", ModePencarian.MENGANDUNG, 0, 10));
+        assertTrue(indeks.cari("xyz", ModePencarian.MENGANDUNG, 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Offset dan batas memberi halaman yang stabil")
+    void testHalaman() {
+        assertEquals(Arrays.asList("P001"), indeks.cari("laptop", ModePencarian.AWALAN, 0, 1));
+        assertEquals(Arrays.asList("P002"), indeks.cari("laptop", ModePencarian.AWALAN, 1, 1));
+        assertEquals(Arrays.asList("P003"), indeks.cari("ming", ModePencarian.MENGANDUNG, 1, 5));
+        assertTrue(indeks.cari("ming", ModePencarian.MENGANDUNG, 2, 5).isEmpty());
+        assertTrue(indeks.cari("laptop", ModePencarian.AWALAN, 0, 0).isEmpty());
+        assertTrue(indeks.cari("laptop", ModePencarian.AWALAN, -1, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ganti nama dan hapus memperbarui indeks")
+    void testTambahUlangDanHapus() {
+        indeks.tambah("P001", "Keyboard Mekanik");
+        assertEquals(Arrays.asList("P002"), indeks.cari("laptop", ModePencarian.AWALAN, 0, 10));
+        assertEquals(Arrays.asList("P001"), indeks.cari("mekan", ModePencarian.MENGANDUNG, 0, 10));
+
+        indeks.hapus("P003");
+        assertTrue(indeks.cari("mouse", ModePencarian.AWALAN, 0, 10).isEmpty());
+        assertTrue(indeks.cari("gaming", ModePencarian.MENGANDUNG, 0, 10).isEmpty());
+        assertEquals(3, indeks.jumlah());
+    }
+
+    @Test
+    @DisplayName("Perubahan paralel untuk kode berbeda dan kode yang sama tetap konsisten")
+    void testPerubahanParalel() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String kode = "X" + i;
+            executor.submit(() -> indeks.tambah(kode, "Barang " + kode));
+            executor.submit(() -> indeks.tambah("P001", "Laptop Gaming"));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1004, indeks.jumlah());
+        assertEquals(1000, indeks.cari("barang", ModePencarian.AWALAN, 0, Integer.MAX_VALUE).size());
+        assertEquals(1000, indeks.cari("ang x", ModePencarian.MENGANDUNG, 0, Integer.MAX_VALUE).size());
+        assertEquals(Arrays.asList("P001", "P002"), indeks.cari("laptop", ModePencarian.AWALAN, 0, 10));
+    }
+
+    @Test
+    @DisplayName("perbarui memasang nama yang berlaku saat dijalankan")
+    void testPerbaruiNamaTerkini() {
+        indeks.perbarui("P001", () -> "Monitor");
+        indeks.perbarui("P005", () -> null);
+
+        assertEquals(Arrays.asList("P001"), indeks.cari("mon", ModePencarian.AWALAN, 0, 10));
+        assertEquals(Arrays.asList("P002"), indeks.cari("laptop", ModePencarian.AWALAN, 0, 10));
+        assertEquals(4, indeks.jumlah());
+    }
+}
@@ -0,0 +1,40 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Kamus Kategori")
+class KamusKategoriTest {
+
+    @Test
+    @DisplayName("Nama kategori yang sama selalu mendapat id yang sama")
+    void testIdUntuk() {
+        KamusKategori kamus = new KamusKategori();
+
+        assertEquals(0, kamus.idUntuk("Elektronik"));
+        assertEquals(1, kamus.idUntuk("Fashion"));
+        assertEquals(0, kamus.idUntuk(new String("Elektronik")));
+        assertEquals(KamusKategori.TIDAK_ADA, kamus.idUntuk(null));
+        assertEquals(KamusKategori.TIDAK_ADA, kamus.cariId("Makanan"));
+        assertEquals(2, kamus.jumlah());
+        assertEquals("K002", kamus.getKategori(1).getIdKategori());
+        assertNull(kamus.getKategori(5));
+    }
+
+    @Test
+    @DisplayName("Kategori yang didaftarkan dipakai sebagai entri kamus")
+    void testDaftarkan() {
+        KamusKategori kamus = new KamusKategori();
+        Kategori elektronik = new Kategori("EL", "Elektronik", "Barang elektronik");
+
+        int id = kamus.daftarkan(elektronik);
+
+        assertEquals(id, kamus.idUntuk("Elektronik"));
+        assertSame(elektronik, kamus.getKategori(id));
+        assertSame(elektronik.getNamaKategori(), kamus.getNama(id));
+        assertEquals(KamusKategori.TIDAK_ADA, kamus.daftarkan(null));
+    }
+}
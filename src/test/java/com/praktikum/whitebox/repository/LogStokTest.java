@@ -0,0 +1,317 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Log Stok (write-ahead log)")
+class LogStokTest {
+    @TempDir
+    Path folder;
+
+    private Path fileLog;
+
+    @BeforeEach
+    void setUp() {
+        fileLog = folder.resolve("stok.log");
+    }
+
+    private static RepositoryProdukInMemory katalog() {
+        RepositoryProdukInMemory repository = new RepositoryProdukInMemory();
+        repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        repository.simpan(new Produk("P002", "Kaos Polos", "Fashion", 50000, 0, 10));
+        return repository;
+    }
+
+    @Test
+    @DisplayName("Mutasi stok yang berhasil bisa diputar ulang ke repository baru")
+    void testPutarUlang() throws IOException {
+        try (LogStok log = new LogStok(fileLog)) {
+            RepositoryProdukWal repository = new RepositoryProdukWal(katalog(), log);
+            assertTrue(repository.kurangiStokJikaCukup("P001", 4));
+            assertTrue(repository.tambahStok("P002", 7));
+            assertTrue(repository.updateStok("P001", 3));
+            // Mutasi yang gagal tidak dicatat
+            assertFalse(repository.kurangiStokJikaCukup("P002", 100));
+            assertFalse(repository.tambahStok("P999", 1));
+        }
+
+        RepositoryProdukInMemory pulih = katalog();
+        assertEquals(3, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(3, pulih.cariByKode("P001").get().getStok());
+        assertEquals(7, pulih.cariByKode("P002").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Mutasi paralel semuanya tercatat walau fsync dikelompokkan")
+    void testMutasiParalel() throws Exception {
+        try (LogStok log = new LogStok(fileLog)) {
+            RepositoryProdukWal repository = new RepositoryProdukWal(katalog(), log);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 400; i++) {
+                String kode = i % 2 == 0 ? "P001" : "P002";
+                executor.submit(() -> repository.tambahStok(kode, 1));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        RepositoryProdukInMemory pulih = katalog();
+        assertEquals(400, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(210, pulih.cariByKode("P001").get().getStok());
+        assertEquals(200, pulih.cariByKode("P002").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Entri terakhir yang terpotong diabaikan dan dipangkas saat dibuka ulang")
+    void testEkorRusak() throws IOException {
+        try (LogStok log = new LogStok(fileLog)) {
+            log.catat(LogStok.Jenis.TAMBAH, "P002", 5).join();
+        }
+        // Simulasi crash di tengah penulisan entri berikutnya
+        Files.write(fileLog, new byte[] {0, 0, 0, 20, 1, 2}, StandardOpenOption.APPEND);
+
+        RepositoryProdukInMemory pulih = katalog();
+        assertEquals(1, LogStok.putarUlang(fileLog, pulih));
+
+        try (LogStok log = new LogStok(fileLog)) {
+            log.catat(LogStok.Jenis.TAMBAH, "P002", 1).join();
+        }
+        pulih = katalog();
+        assertEquals(2, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(6, pulih.cariByKode("P002").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Checkpoint mengosongkan log")
+    void testCheckpoint() throws IOException {
+        try (LogStok log = new LogStok(fileLog)) {
+            log.catat(LogStok.Jenis.SET, "P001", 50).join();
+            log.checkpoint().join();
+            assertEquals(0, Files.size(fileLog));
+            log.catat(LogStok.Jenis.KURANGI, "P001", 2).join();
+        }
+
+        RepositoryProdukInMemory pulih = katalog();
+        assertEquals(1, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(8, pulih.cariByKode("P001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Checkpoint menyimpan dasar dulu; replay berulang di atas dasar tidak menggandakan mutasi")
+    void testCheckpointTerkoordinasi() throws IOException {
+        RepositoryProdukInMemory tersimpan = new RepositoryProdukInMemory();
+        try (LogStok log = new LogStok(fileLog)) {
+            RepositoryProdukWal repository = new RepositoryProdukWal(katalog(), log);
+            assertTrue(repository.tambahStok("P002", 5));
+            repository.checkpoint(() -> repository.cariSemua().forEach(p -> tersimpan.simpan(
+                    new Produk(p.getKode(), p.getNama(), p.getKategori(), p.getHarga(), p.getStok(), p.getStokMinimum()))));
+            assertEquals(0, Files.size(fileLog));
+            assertTrue(repository.kurangiStokJikaCukup("P002", 2));
+            assertTrue(repository.tambahStok("P002", 4));
+        }
+
+        assertEquals(5, tersimpan.cariByKode("P002").get().getStok());
+        assertEquals(2, LogStok.putarUlang(fileLog, tersimpan));
+        assertEquals(2, LogStok.putarUlang(fileLog, tersimpan));
+        assertEquals(7, tersimpan.cariByKode("P002").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Stok dari simpan tidak ditimpa entri SET lama saat replay")
+    void testSimpanSetelahMutasi() throws IOException {
+        // Repository dasar dianggap tahan crash: isinya tetap ada saat log diputar ulang
+        RepositoryProdukInMemory dasar = katalog();
+        try (LogStok log = new LogStok(fileLog)) {
+            RepositoryProdukWal repository = new RepositoryProdukWal(dasar, log);
+            assertTrue(repository.kurangiStokJikaCukup("P001", 4));
+            assertTrue(repository.tambahStok("P002", 3));
+            assertTrue(repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 50, 5)));
+            assertEquals(1, repository.simpanSemua(List.of(
+                    new Produk("P002", "Kaos Polos", "Fashion", 50000, 20, 10))));
+        }
+
+        LogStok.putarUlang(fileLog, dasar);
+        assertEquals(50, dasar.cariByKode("P001").get().getStok());
+        assertEquals(20, dasar.cariByKode("P002").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Mutasi yang gagal dicatat tidak diterapkan ke repository dasar")
+    void testGagalCatatTidakDiterapkan() throws IOException {
+        RepositoryProdukInMemory dasar = katalog();
+        LogStok log = new LogStok(fileLog);
+        RepositoryProdukWal repository = new RepositoryProdukWal(dasar, log);
+        log.close();
+
+        assertThrows(IllegalStateException.class, () -> repository.tambahStok("P002", 5));
+        assertEquals(0, dasar.cariByKode("P002").get().getStok());
+        assertTrue(log.checkpoint().isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Catat setelah ditutup gagal dengan jelas")
+    void testCatatSetelahTutup() throws IOException {
+        LogStok log = new LogStok(fileLog);
+        log.close();
+
+        assertTrue(log.catat(LogStok.Jenis.SET, "P001", 1).isCompletedExceptionally());
+        assertThrows(NullPointerException.class, () -> log.catat(LogStok.Jenis.SET, null, 1));
+    }
+
+    @Test
+    @DisplayName("Setelah write gagal di tengah entri, log menolak semua entri berikutnya")
+    void testWriteGagalMenutupLog() throws IOException {
+        ChannelGagal channel = new ChannelGagal(FileChannel.open(fileLog, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try (LogStok log = new LogStok(channel)) {
+            log.catat(LogStok.Jenis.SET, "P001", 7).join();
+            channel.gagalkanWrite = true;
+            CompletableFuture<Void> gagal = log.catat(LogStok.Jenis.SET, "P001", 8);
+            assertThrows(CompletionException.class, gagal::join);
+
+            // Channel sudah pulih, tapi entri baru tetap tidak boleh ditulis di belakang ekor rusak
+            channel.gagalkanWrite = false;
+            CompletableFuture<Void> berikutnya = log.catat(LogStok.Jenis.SET, "P002", 3);
+            CompletionException error = assertThrows(CompletionException.class, berikutnya::join);
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertTrue(log.checkpoint().isCompletedExceptionally());
+        }
+
+        RepositoryProdukInMemory pulih = katalog();
+        assertEquals(1, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(7, pulih.cariByKode("P001").get().getStok());
+
+        // Dibuka ulang: ekor setengah jadi dipangkas dan log bisa dipakai lagi
+        try (LogStok log = new LogStok(fileLog)) {
+            log.catat(LogStok.Jenis.SET, "P002", 3).join();
+        }
+        pulih = katalog();
+        assertEquals(2, LogStok.putarUlang(fileLog, pulih));
+        assertEquals(3, pulih.cariByKode("P002").get().getStok());
+    }
+
+    // FileChannel yang bisa diatur gagal setelah menulis sebagian buffer
+    private static final class ChannelGagal extends FileChannel {
+        private final FileChannel asli;
+        volatile boolean gagalkanWrite;
+
+        ChannelGagal(FileChannel asli) {
+            this.asli = asli;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (gagalkanWrite) {
+                ByteBuffer sebagian = src.duplicate();
+                sebagian.limit(sebagian.position() + Math.min(5, sebagian.remaining()));
+                asli.write(sebagian);
+                throw new IOException("Disk penuh");
+            }
+            return asli.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return asli.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return asli.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return asli.position();
+        }
+
+        @Override
+        public FileChannel position(long posisiBaru) throws IOException {
+            asli.position(posisiBaru);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return asli.size();
+        }
+
+        @Override
+        public FileChannel truncate(long ukuran) throws IOException {
+            asli.truncate(ukuran);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            asli.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return asli.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            asli.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk Cache")
+class RepositoryProdukCacheTest {
+    private RepositoryProdukOffHeap dasar;
+    private RepositoryProdukCache repository;
+
+    @BeforeEach
+    void setUp() {
+        dasar = new RepositoryProdukOffHeap();
+        for (int i = 0; i < 20; i++) {
+            dasar.simpan(new Produk("P" + i, "Barang " + i, "Umum", 1000, 10, 2));
+        }
+        repository = new RepositoryProdukCache(dasar, 10);
+    }
+
+    @Test
+    @DisplayName("Pembacaan kedua adalah hit dan mengembalikan produk yang sama")
+    void testHitDanMiss() {
+        Produk pertama = repository.cariByKode("P1").get();
+        Produk kedua = repository.cariByKode("P1").get();
+
+        assertSame(pertama, kedua);
+        assertEquals(1, repository.getJumlahMiss());
+        assertEquals(1, repository.getJumlahHit());
+        assertTrue(repository.cariByKode("P99").isEmpty());
+        assertTrue(repository.cariByKode(null).isEmpty());
+        assertEquals(1, repository.ukuran());
+    }
+
+    @Test
+    @DisplayName("Penulisan diteruskan ke delegate dan membuang entri cache")
+    void testInvalidasi() {
+        repository.cariByKode("P1");
+        assertTrue(repository.updateStok("P1", 3));
+        assertEquals(3, repository.cariByKode("P1").get().getStok());
+
+        assertTrue(repository.kurangiStokJikaCukup("P1", 1));
+        assertEquals(2, repository.cariByKode("P1").get().getStok());
+
+        assertTrue(repository.hapus("P1"));
+        assertTrue(repository.cariByKode("P1").isEmpty());
+        assertTrue(dasar.cariByKode("P1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Pemindaian sekali baca tidak mengusir produk yang sering dicari")
+    void testSegmentedLru() {
+        repository.cariByKode("P0");
+        repository.cariByKode("P0");
+
+        for (int i = 1; i < 20; i++) {
+            repository.cariByKode("P" + i);
+        }
+        long hitSebelum = repository.getJumlahHit();
+        repository.cariByKode("P0");
+
+        assertEquals(hitSebelum + 1, repository.getJumlahHit());
+        assertTrue(repository.getJumlahEviksi() > 0);
+        assertTrue(repository.ukuran() <= 10);
+    }
+
+    @Test
+    @DisplayName("Kapasitas kurang dari 2 ditolak")
+    void testKapasitasTidakValid() {
+        assertThrows(IllegalArgumentException.class, () -> new RepositoryProdukCache(dasar, 1));
+    }
+
+    @Test
+    @DisplayName("Penulisan kode lain tidak membatalkan muatan yang sedang berjalan")
+    void testInvalidasiKodeLain() throws Exception {
+        RepositoryLambat lambat = new RepositoryLambat();
+        RepositoryProdukCache cache = new RepositoryProdukCache(lambat, 10);
+
+        CompletableFuture<Optional<Produk>> muat = CompletableFuture.supplyAsync(() -> cache.cariByKode("P1"));
+        lambat.mulai.await();
+        cache.updateStok("P2", 5);
+        lambat.lanjut.countDown();
+        muat.get();
+
+        assertEquals(1, cache.ukuran());
+    }
+
+    @Test
+    @DisplayName("Penulisan kode yang sedang dimuat membuang hasil muatan yang basi")
+    void testInvalidasiKodeSama() throws Exception {
+        RepositoryLambat lambat = new RepositoryLambat();
+        RepositoryProdukCache cache = new RepositoryProdukCache(lambat, 10);
+
+        CompletableFuture<Optional<Produk>> muat = CompletableFuture.supplyAsync(() -> cache.cariByKode("P1"));
+        lambat.mulai.await();
+        cache.updateStok("P1", 3);
+        lambat.lanjut.countDown();
+
+        assertEquals(10, muat.get().get().getStok());
+        assertEquals(0, cache.ukuran());
+        assertEquals(3, cache.cariByKode("P1").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Pembacaan paralel lintas shard tetap dalam kapasitas dan menghitung hit dengan benar")
+    void testPembacaanParalel() throws Exception {
+        RepositoryProdukCache cache = new RepositoryProdukCache(dasar, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    cache.cariByKode("P" + (i % 20));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(8000, cache.getJumlahHit() + cache.getJumlahMiss());
+        assertTrue(cache.getJumlahHit() > cache.getJumlahMiss());
+        assertTrue(cache.ukuran() <= 64);
+    }
+
+    // Pembacaan pertama menunggu sampai dilanjutkan, setelah nilainya sudah diambil
+    private static class RepositoryLambat extends RepositoryProdukOffHeap {
+        final CountDownLatch mulai = new CountDownLatch(1);
+        final CountDownLatch lanjut = new CountDownLatch(1);
+
+        RepositoryLambat() {
+            simpan(new Produk("P1", "Barang 1", "Umum", 1000, 10, 2));
+            simpan(new Produk("P2", "Barang 2", "Umum", 1000, 10, 2));
+        }
+
+        @Override
+        public Optional<Produk> cariByKode(String kode) {
+            Optional<Produk> hasil = super.cariByKode(kode);
+            if (mulai.getCount() > 0) {
+                mulai.countDown();
+                try {
+                    lanjut.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return hasil;
+        }
+    }
+}
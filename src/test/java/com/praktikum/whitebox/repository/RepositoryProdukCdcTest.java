@@ -0,0 +1,80 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.PeristiwaProduk;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.service.ServiceInventaris;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk CDC")
+class RepositoryProdukCdcTest {
+    private AliranPeristiwa aliran;
+    private AliranPeristiwa.Langganan langganan;
+    private List<PeristiwaProduk> diterima;
+    private RepositoryProdukCdc repository;
+
+    @BeforeEach
+    void setUp() {
+        aliran = new AliranPeristiwa(1024);
+        diterima = Collections.synchronizedList(new ArrayList<>());
+        langganan = aliran.berlangganan(diterima::addAll);
+        repository = new RepositoryProdukCdc(new RepositoryProdukInMemory(), aliran);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aliran.close();
+    }
+
+    @Test
+    @DisplayName("Mutasi lewat service terbit berurutan, mutasi yang gagal tidak terbit")
+    void testPeristiwaDariService() {
+        ServiceInventaris service = new ServiceInventaris(repository);
+        Produk laptop = new Produk("PROD001", "Laptop Gaming", "Elektronik", 15000000, 10, 5);
+        assertTrue(service.tambahProduk(laptop));
+        assertTrue(service.keluarStok("PROD001", 3));
+        assertFalse(service.keluarStok("PROD001", 100));
+        assertTrue(service.masukStok("PROD001", 2));
+        assertTrue(service.updateStok("PROD001", 0));
+        assertTrue(repository.updateAktif("PROD001", false));
+        assertTrue(service.hapusProduk("PROD001"));
+        langganan.close();
+
+        List<PeristiwaProduk.Jenis> jenis = new ArrayList<>();
+        for (int i = 0; i < diterima.size(); i++) {
+            assertEquals(i + 1, diterima.get(i).getSekuens());
+            assertEquals("PROD001", diterima.get(i).getKode());
+            jenis.add(diterima.get(i).getJenis());
+        }
+        assertEquals(List.of(PeristiwaProduk.Jenis.DISIMPAN, PeristiwaProduk.Jenis.STOK_KELUAR,
+                PeristiwaProduk.Jenis.STOK_MASUK, PeristiwaProduk.Jenis.STOK_DIUBAH,
+                PeristiwaProduk.Jenis.DINONAKTIFKAN, PeristiwaProduk.Jenis.DIHAPUS), jenis);
+        assertEquals(3, diterima.get(1).getJumlah());
+        assertEquals(0, diterima.get(3).getJumlah());
+    }
+
+    @Test
+    @DisplayName("Produk di peristiwa DISIMPAN adalah salinan saat disimpan")
+    void testProdukDisalin() {
+        Produk laptop = new Produk("PROD001", "Laptop Gaming", "Elektronik", 15000000, 10, 5);
+        repository.simpan(laptop);
+        laptop.setNama("Laptop Diubah");
+        assertEquals(2, repository.simpanSemua(List.of(
+                new Produk("PROD002", "Mouse Wireless", "Elektronik", 150000, 20, 5),
+                new Produk("PROD003", "Kaos Polos", "Fashion", 50000, 0, 10))));
+        langganan.close();
+
+        assertEquals(3, diterima.size());
+        assertNotSame(laptop, diterima.get(0).getProduk());
+        assertEquals("Laptop Gaming", diterima.get(0).getProduk().getNama());
+        assertEquals("PROD003", diterima.get(2).getKode());
+    }
+}
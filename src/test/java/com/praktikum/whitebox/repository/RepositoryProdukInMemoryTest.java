@@ -0,0 +1,300 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.StatusStok;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk In-Memory")
+class RepositoryProdukInMemoryTest {
+    private RepositoryProdukInMemory repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryProdukInMemory();
+        repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        repository.simpan(new Produk("P002", "Laptop Kantor", "Elektronik", 8000000, 3, 5));
+        repository.simpan(new Produk("P003", "Kaos Polos", "Fashion", 50000, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Simpan dan cari produk berdasarkan kode")
+    void testSimpanDanCariByKode() {
+        Optional<Produk> hasil = repository.cariByKode("P001");
+
+        assertTrue(hasil.isPresent());
+        assertEquals("Laptop Gaming", hasil.get().getNama());
+        assertTrue(repository.cariByKode("P999").isEmpty());
+        assertTrue(repository.cariByKode(null).isEmpty());
+        assertFalse(repository.simpan(null));
+    }
+
+    @Test
+    @DisplayName("Cari by kategori memakai indeks kategori")
+    void testCariByKategori() {
+        assertEquals(2, repository.cariByKategori("Elektronik").size());
+        assertEquals(1, repository.cariByKategori("Fashion").size());
+        assertTrue(repository.cariByKategori("Makanan").isEmpty());
+        assertTrue(repository.cariByKategori(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Cari by nama berdasarkan awalan, tidak peka huruf besar/kecil")
+    void testCariByNama() {
+        assertEquals(2, repository.cariByNama("laptop").size());
+        assertEquals(1, repository.cariByNama("LAPTOP G").size());
+        assertTrue(repository.cariByNama("Gaming").isEmpty());
+        assertTrue(repository.cariByNama("").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Simpan ulang kode yang sama memperbarui indeks")
+    void testSimpanUlangMemperbaruiIndeks() {
+        repository.simpan(new Produk("P001", "Mouse Wireless", "Aksesoris", 150000, 10, 5));
+
+        assertEquals(1, repository.cariByKategori("Elektronik").size());
+        assertEquals(1, repository.cariByKategori("Aksesoris").size());
+        assertEquals(1, repository.cariByNama("laptop").size());
+        assertEquals(3, repository.jumlahProduk());
+    }
+
+    @Test
+    @DisplayName("Produk tersimpan yang diubah lalu disimpan ulang tidak meninggalkan indeks basi")
+    void testSimpanUlangInstansYangSama() {
+        Produk produk = repository.cariByKode("P001").get();
+        produk.setKategori("Aksesoris");
+        produk.setNama("Mouse Wireless");
+        produk.setStok(0);
+        repository.simpan(produk);
+
+        assertTrue(repository.cariByKategori("Elektronik").stream().noneMatch(p -> p.getKode().equals("P001")));
+        assertEquals(1, repository.cariByKategori("Aksesoris").size());
+        assertEquals(1, repository.cariByNama("laptop").size());
+        assertEquals(1, repository.cariByNama("mouse").size());
+        assertEquals(2, repository.jumlahProduk(StatusStok.HABIS));
+        assertEquals(0, repository.jumlahProduk(StatusStok.AMAN));
+        assertEquals(3, repository.hitungTotalStok());
+        assertTrue(repository.isAgregatKonsisten(0.001));
+    }
+
+    @Test
+    @DisplayName("Hapus produk membersihkan indeks")
+    void testHapus() {
+        assertTrue(repository.hapus("P003"));
+        assertFalse(repository.hapus("P003"));
+
+        assertTrue(repository.cariByKode("P003").isEmpty());
+        assertTrue(repository.cariByKategori("Fashion").isEmpty());
+        assertTrue(repository.cariByNama("kaos").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Update stok dan query status stok")
+    void testUpdateStokDanStatusStok() {
+        assertTrue(repository.updateStok("P001", 2));
+        assertFalse(repository.updateStok("P999", 2));
+
+        List<Produk> menipis = repository.cariProdukStokMenipis();
+        assertEquals(2, menipis.size());
+        assertEquals(1, repository.cariProdukStokHabis().size());
+        assertEquals(3, repository.cariSemua().size());
+    }
+
+    @Test
+    @DisplayName("Simpan paralel dari banyak thread tidak kehilangan data")
+    void testSimpanParalel() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String kode = "X" + i;
+            executor.submit(() -> repository.simpan(new Produk(kode, "Barang " + kode, "Umum", 1000, 1, 0)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1003, repository.jumlahProduk());
+        assertEquals(1000, repository.cariByKategori("Umum").size());
+        assertEquals(1000, repository.cariByNama("barang").size());
+    }
+
+    @Test
+    @DisplayName("kurangiStokJikaCukup menolak stok kurang dan produk tidak aktif")
+    void testKurangiStokJikaCukup() {
+        assertTrue(repository.kurangiStokJikaCukup("P001", 4));
+        assertEquals(6, repository.cariByKode("P001").get().getStok());
+        assertFalse(repository.kurangiStokJikaCukup("P001", 7));
+        assertFalse(repository.kurangiStokJikaCukup("P999", 1));
+        assertFalse(repository.kurangiStokJikaCukup("P001", 0));
+
+        assertTrue(repository.updateAktif("P002", false));
+        assertFalse(repository.kurangiStokJikaCukup("P002", 1));
+        assertFalse(repository.tambahStok("P002", 1));
+    }
+
+    @Test
+    @DisplayName("tambahStok menambah stok dan menolak overflow")
+    void testTambahStok() {
+        assertTrue(repository.tambahStok("P003", 5));
+        assertEquals(5, repository.cariByKode("P003").get().getStok());
+        assertFalse(repository.tambahStok("P003", Integer.MAX_VALUE));
+        assertFalse(repository.tambahStok("P999", 1));
+    }
+
+    @Test
+    @DisplayName("Pengurangan stok paralel tidak pernah oversell")
+    void testKurangiStokParalelTidakOversell() throws InterruptedException {
+        repository.updateStok("P001", 500);
+        AtomicInteger berhasil = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (repository.kurangiStokJikaCukup("P001", 1)) {
+                    berhasil.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, berhasil.get());
+        assertEquals(0, repository.cariByKode("P001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Total stok dan nilai diperbarui di setiap perubahan")
+    void testAgregatBerjalan() {
+        assertEquals(13, repository.hitungTotalStok());
+        assertEquals(15000000.0 * 10 + 8000000.0 * 3, repository.hitungTotalNilai(), 0.001);
+
+        repository.kurangiStokJikaCukup("P001", 4);
+        repository.tambahStok("P003", 20);
+        repository.updateStok("P002", 1);
+        repository.updateAktif("P001", false);
+        repository.simpan(new Produk("P004", "Topi", "Fashion", 25000, 8, 2));
+        repository.hapus("P003");
+
+        assertEquals(9, repository.hitungTotalStok());
+        assertEquals(8000000.0 + 25000.0 * 8, repository.hitungTotalNilai(), 0.001);
+        assertTrue(repository.isAgregatKonsisten(0.001));
+    }
+
+    @Test
+    @DisplayName("Drift agregat terdeteksi dan bisa dihitung ulang")
+    void testDeteksiDanHitungUlangAgregat() {
+        // Mengubah produk langsung (bukan lewat repository) membuat total berjalan tertinggal
+        repository.cariByKode("P001").get().setStok(100);
+        assertFalse(repository.isAgregatKonsisten(0.001));
+
+        repository.hitungUlangAgregat();
+
+        assertTrue(repository.isAgregatKonsisten(0.001));
+        assertEquals(103, repository.hitungTotalStok());
+    }
+
+    @Test
+    @DisplayName("Set status stok ikut berpindah saat stok atau stok minimum berubah")
+    void testIndeksStatusStok() {
+        assertEquals(1, repository.jumlahProduk(StatusStok.AMAN));
+        assertEquals(1, repository.jumlahProduk(StatusStok.MENIPIS));
+        assertEquals(1, repository.jumlahProduk(StatusStok.HABIS));
+
+        repository.kurangiStokJikaCukup("P001", 6);
+        repository.updateStokMinimum("P002", 1);
+        repository.tambahStok("P003", 3);
+
+        assertEquals("P002", repository.cariByStatusStok(StatusStok.AMAN).get(0).getKode());
+        assertEquals(2, repository.cariProdukStokMenipis().size());
+        assertTrue(repository.cariProdukStokHabis().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Pendengar dipanggil hanya saat produk melewati batas status")
+    void testPendengarStatusStok() {
+        List<String> peristiwa = new ArrayList<>();
+        PendengarStatusStok pendengar = (produk, lama, baru) ->
+                peristiwa.add(produk.getKode() + ":" + lama + "->" + baru);
+        repository.tambahPendengar(pendengar);
+
+        repository.kurangiStokJikaCukup("P001", 1);   // 9, masih AMAN
+        repository.kurangiStokJikaCukup("P001", 5);   // 4, MENIPIS
+        repository.updateStok("P001", 0);             // HABIS
+        repository.hapus("P003");
+        repository.hapusPendengar(pendengar);
+        repository.updateStok("P001", 50);
+
+        assertEquals(Arrays.asList("P001:AMAN->MENIPIS", "P001:MENIPIS->HABIS", "P003:HABIS->null"), peristiwa);
+    }
+
+    @Test
+    @DisplayName("Transisi status yang dilaporkan ke pendengar cocok dengan keadaan akhir saat mutasi paralel")
+    void testPendengarStatusStokParalel() throws InterruptedException {
+        AtomicInteger masukMenipis = new AtomicInteger();
+        AtomicInteger keluarMenipis = new AtomicInteger();
+        repository.tambahPendengar((produk, lama, baru) -> {
+            assertNotEquals(lama, baru);
+            if (baru == StatusStok.MENIPIS) {
+                masukMenipis.incrementAndGet();
+            }
+            if (lama == StatusStok.MENIPIS) {
+                keluarMenipis.incrementAndGet();
+            }
+        });
+
+        // P001: stok 10, minimum 5; setiap keluar/masuk 5 melewati batas AMAN <-> MENIPIS
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            boolean keluar = i % 2 == 0;
+            executor.submit(() -> {
+                if (keluar) {
+                    repository.kurangiStokJikaCukup("P001", 5);
+                } else {
+                    repository.tambahStok("P001", 5);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int akhirMenipis = repository.cariByKode("P001").get().getStatusStok() == StatusStok.MENIPIS ? 1 : 0;
+        assertEquals(akhirMenipis, masukMenipis.get() - keluarMenipis.get());
+    }
+
+    @Test
+    @DisplayName("Halaman keyset terurut kode dan streaming per kategori/status")
+    void testHalamanDanStreaming() {
+        repository.simpan(new Produk("P000", "Topi", "Fashion", 25000, 8, 2));
+
+        List<String> halamanKode = new ArrayList<>();
+        List<Produk> halaman = repository.cariSemuaSetelah(null, 2);
+        while (!halaman.isEmpty()) {
+            halaman.forEach(p -> halamanKode.add(p.getKode()));
+            halaman = repository.cariSemuaSetelah(halaman.get(halaman.size() - 1).getKode(), 2);
+        }
+        assertEquals(Arrays.asList("P000", "P001", "P002", "P003"), halamanKode);
+        assertTrue(repository.cariSemuaSetelah(null, 0).isEmpty());
+
+        List<String> fashion = new ArrayList<>();
+        repository.untukSetiapByKategori("Fashion", p -> fashion.add(p.getKode()));
+        fashion.sort(null);
+        assertEquals(Arrays.asList("P000", "P003"), fashion);
+
+        List<String> habis = new ArrayList<>();
+        repository.untukSetiapByStatusStok(StatusStok.HABIS, p -> habis.add(p.getKode()));
+        assertEquals(Arrays.asList("P003"), habis);
+
+        AtomicInteger jumlah = new AtomicInteger();
+        repository.untukSetiap(p -> jumlah.incrementAndGet());
+        assertEquals(4, jumlah.get());
+    }
+}
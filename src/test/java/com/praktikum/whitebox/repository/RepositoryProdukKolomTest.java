@@ -0,0 +1,133 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk Kolom")
+class RepositoryProdukKolomTest {
+    private RepositoryProdukInMemory dasar;
+    private RepositoryProdukKolom repository;
+
+    @BeforeEach
+    void setUp() {
+        dasar = new RepositoryProdukInMemory();
+        dasar.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        dasar.simpan(new Produk("P002", "Laptop Kantor", "Elektronik", 8000000, 3, 5));
+        repository = new RepositoryProdukKolom(dasar);
+        repository.simpan(new Produk("P003", "Kaos Polos", "Fashion", 50000, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Kolom terisi dari isi delegate dan penulisan baru")
+    void testIsiAwal() {
+        assertEquals(3, repository.jumlahProduk());
+        assertEquals(13, repository.hitungTotalStok());
+        assertEquals(dasar.hitungTotalNilai(), repository.hitungTotalNilai(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Total dan query ambang mengikuti setiap perubahan")
+    void testAgregatMengikutiPerubahan() {
+        repository.kurangiStokJikaCukup("P001", 4);
+        repository.tambahStok("P003", 20);
+        repository.updateStokMinimum("P003", 30);
+        repository.updateAktif("P002", false);
+
+        assertEquals(26, repository.hitungTotalStok());
+        assertEquals(15000000.0 * 6 + 50000.0 * 20, repository.hitungTotalNilai(), 0.001);
+        assertEquals(2, repository.cariProdukStokMenipis().size());
+        assertTrue(repository.cariProdukStokHabis().isEmpty());
+        assertEquals(1, repository.hitungJumlahStokDiBawah(5));
+    }
+
+    @Test
+    @DisplayName("Hapus memindahkan baris terakhir tanpa merusak kolom lain")
+    void testHapusBaris() {
+        assertTrue(repository.hapus("P001"));
+        assertFalse(repository.hapus("P001"));
+
+        assertEquals(2, repository.jumlahProduk());
+        assertEquals(3, repository.hitungTotalStok());
+        assertEquals(1, repository.cariProdukStokHabis().size());
+        assertTrue(repository.updateStok("P003", 7));
+        assertEquals(10, repository.hitungTotalStok());
+    }
+
+    @Test
+    @DisplayName("Filter dan total per kategori dihitung dari bitmap kategori")
+    void testBitmapKategori() {
+        repository.simpan(new Produk("P004", "Topi", "Fashion", 25000, 8, 2));
+        repository.updateAktif("P002", false);
+
+        assertEquals(2, repository.cariByKategori("Elektronik").size());
+        assertEquals(2, repository.cariByKategori("Fashion").size());
+        assertTrue(repository.cariByKategori("Makanan").isEmpty());
+        assertTrue(repository.cariByKategori(null).isEmpty());
+        assertEquals(15000000.0 * 10, repository.hitungTotalNilai("Elektronik"), 0.001);
+        assertEquals(8, repository.hitungTotalStok("Fashion"));
+
+        Map<String, Double> perKategori = repository.hitungTotalNilaiPerKategori();
+        assertEquals(2, perKategori.size());
+        assertEquals(25000.0 * 8, perKategori.get("Fashion"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Total per kategori tidak tergabung walau id kategori terdaftar bentrok dengan id otomatis")
+    void testTotalPerKategoriIdBentrok() {
+        KamusKategori kamus = new KamusKategori();
+        kamus.daftarkan(new Kategori("K002", "Buku", "Buku dan majalah"));
+        RepositoryProdukKolom kolom = new RepositoryProdukKolom(new RepositoryProdukInMemory(), kamus);
+        kolom.simpan(new Produk("P010", "Novel", "Buku", 100000, 2, 1));
+        // Kategori kedua dibuat otomatis dengan id K002 juga
+        kolom.simpan(new Produk("P011", "Mouse", "Elektronik", 150000, 3, 1));
+        assertEquals("K002", kamus.getKategori(kamus.cariId("Elektronik")).getIdKategori());
+
+        Map<String, Double> perKategori = kolom.hitungTotalNilaiPerKategori();
+        assertEquals(2, perKategori.size());
+        assertEquals(200000.0, perKategori.get("Buku"), 0.001);
+        assertEquals(450000.0, perKategori.get("Elektronik"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Pindah kategori dan hapus baris memperbarui bitmap kategori")
+    void testBitmapKategoriSetelahPerubahan() {
+        repository.simpan(new Produk("P001", "Laptop Gaming", "Komputer", 15000000, 10, 5));
+        assertEquals(1, repository.cariByKategori("Elektronik").size());
+        assertEquals("P001", repository.cariByKategori("Komputer").get(0).getKode());
+
+        // P003 adalah baris terakhir yang dipindah ke posisi P001
+        assertTrue(repository.hapus("P001"));
+        assertTrue(repository.cariByKategori("Komputer").isEmpty());
+        assertEquals("P003", repository.cariByKategori("Fashion").get(0).getKode());
+        assertEquals("P002", repository.cariByKategori("Elektronik").get(0).getKode());
+    }
+
+    @Test
+    @DisplayName("Penulisan paralel berakhir konsisten dengan delegate")
+    void testPenulisanParalel() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String kode = "X" + i;
+            executor.submit(() -> {
+                repository.simpan(new Produk(kode, "Barang " + kode, "Umum", 1000, 2, 0));
+                repository.tambahStok("P001", 1);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1003, repository.jumlahProduk());
+        assertEquals(dasar.hitungTotalStok(), repository.hitungTotalStok());
+        assertEquals(dasar.hitungTotalNilai(), repository.hitungTotalNilai(), 0.001);
+    }
+}
@@ -0,0 +1,178 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk berbasis file mmap")
+class RepositoryProdukMmapTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Data tetap ada setelah repository ditutup dan dibuka lagi")
+    void testPersistenSetelahBukaUlang() throws IOException {
+        Path file = dir.resolve("produk.dat");
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertTrue(repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5)));
+            assertTrue(repository.simpan(new Produk("P002", "Kaos Polos", "Fashion", 50000, 0, 10)));
+            assertTrue(repository.updateStok("P001", 7));
+            assertTrue(repository.kurangiStokJikaCukup("P001", 2));
+            assertTrue(repository.updateAktif("P002", false));
+        }
+
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            Produk produk = repository.cariByKode("P001").orElseThrow();
+            assertEquals("Laptop Gaming", produk.getNama());
+            assertEquals("Elektronik", produk.getKategori());
+            assertEquals(15000000, produk.getHarga(), 0.001);
+            assertEquals(5, produk.getStok());
+            assertFalse(repository.cariByKode("P002").orElseThrow().isAktif());
+            assertEquals(2, repository.jumlahProduk());
+            assertEquals(15000000.0 * 5, repository.hitungTotalNilai(), 0.001);
+            assertEquals(5, repository.hitungTotalStok());
+        }
+    }
+
+    @Test
+    @DisplayName("Query nama, kategori, dan status stok")
+    void testQuery() throws IOException {
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(dir.resolve("produk.dat"))) {
+            repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+            repository.simpan(new Produk("P002", "Laptop Kantor", "Elektronik", 8000000, 3, 5));
+            repository.simpan(new Produk("P003", "Kaos Polos", "Fashion", 50000, 0, 10));
+
+            assertEquals(2, repository.cariByNama("LAPTOP").size());
+            assertEquals(2, repository.cariByKategori("Elektronik").size());
+            assertEquals(1, repository.cariProdukStokMenipis().size());
+            assertEquals(1, repository.cariProdukStokHabis().size());
+            assertEquals(3, repository.cariSemua().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Hapus menandai tombstone, padatkan membuang rekaman terhapus")
+    void testHapusDanPadatkan() throws IOException {
+        Path file = dir.resolve("produk.dat");
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            for (int i = 0; i < 10; i++) {
+                repository.simpan(new Produk("P00" + i, "Produk " + i, "Umum", 1000, i, 1));
+            }
+            assertTrue(repository.hapus("P003"));
+            assertFalse(repository.hapus("P003"));
+            assertTrue(repository.cariByKode("P003").isEmpty());
+
+            repository.padatkan();
+
+            assertEquals(9, repository.jumlahProduk());
+            assertEquals(4, repository.cariByKode("P004").orElseThrow().getStok());
+        }
+        assertFalse(Files.exists(dir.resolve("produk.dat.padat")));
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertEquals(9, repository.jumlahProduk());
+            assertTrue(repository.cariByKode("P003").isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Simpan ulang menulis slot baru; rekaman lama yang belum ditandai saat crash kalah")
+    void testSimpanUlangAmanSaatCrash() throws IOException {
+        Path file = dir.resolve("produk.dat");
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+            repository.simpan(new Produk("P001", "Laptop Gaming Pro", "Elektronik", 17000000, 7, 5));
+            assertEquals(1, repository.jumlahProduk());
+            assertEquals(7, repository.cariByKode("P001").orElseThrow().getStok());
+        }
+        // Simulasi crash sebelum rekaman lama (slot 0, tepat setelah header 64 byte) ditandai dihapus;
+        // crash juga berarti header tidak sempat ditandai bersih (int di offset 16)
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1}), 64);
+            channel.write(ByteBuffer.allocate(4), 16);
+        }
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertTrue(repository.isIndeksDibangunUlang());
+            assertEquals(1, repository.jumlahProduk());
+            assertEquals("Laptop Gaming Pro", repository.cariByKode("P001").orElseThrow().getNama());
+            assertEquals(1, repository.cariSemua().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Buka ulang setelah close memakai indeks tersimpan tanpa memindai rekaman")
+    void testBukaUlangMemakaiIndeksTersimpan() throws IOException {
+        Path file = dir.resolve("produk.dat");
+        // Lebih dari kapasitas awal indeks, supaya indeks sempat diperbesar
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            for (int i = 0; i < 3000; i++) {
+                repository.simpan(new Produk(String.format("P%05d", i), "Produk " + i, "Umum", 1000, i, 1));
+            }
+            for (int i = 0; i < 3000; i += 3) {
+                assertTrue(repository.hapus(String.format("P%05d", i)));
+            }
+            repository.simpan(new Produk("P00001", "Produk Baru", "Umum", 1000, 42, 1));
+        }
+
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertFalse(repository.isIndeksDibangunUlang());
+            assertEquals(2000, repository.jumlahProduk());
+            assertEquals(2000, repository.cariSemua().size());
+            assertTrue(repository.cariByKode("P00000").isEmpty());
+            assertEquals("Produk Baru", repository.cariByKode("P00001").orElseThrow().getNama());
+            assertEquals(2999, repository.cariByKode("P02999").orElseThrow().getStok());
+            repository.simpan(new Produk("P00000", "Produk Kembali", "Umum", 1000, 1, 1));
+            assertEquals(2001, repository.jumlahProduk());
+        }
+    }
+
+    @Test
+    @DisplayName("File indeks yang hilang atau bukan pasangannya dibangun ulang dari rekaman")
+    void testIndeksHilangDibangunUlang() throws IOException {
+        Path file = dir.resolve("produk.dat");
+        Path fileIndeks = dir.resolve("produk.dat.indeks");
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        }
+        Path indeksLama = dir.resolve("indeks-lama");
+        Files.copy(fileIndeks, indeksLama);
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            repository.simpan(new Produk("P002", "Kaos Polos", "Fashion", 50000, 0, 10));
+        }
+
+        Files.delete(fileIndeks);
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertTrue(repository.isIndeksDibangunUlang());
+            assertEquals(2, repository.jumlahProduk());
+            assertTrue(repository.cariByKode("P002").isPresent());
+        }
+
+        // Indeks dari sebelum dibangun ulang punya penanda lain, jadi tidak dipercaya
+        Files.copy(indeksLama, fileIndeks, StandardCopyOption.REPLACE_EXISTING);
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(file)) {
+            assertTrue(repository.isIndeksDibangunUlang());
+            assertTrue(repository.cariByKode("P002").isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("Produk dengan teks melebihi slot rekaman ditolak")
+    void testTeksTerlaluPanjangDitolak() throws IOException {
+        try (RepositoryProdukMmap repository = new RepositoryProdukMmap(dir.resolve("produk.dat"))) {
+            assertFalse(repository.simpan(new Produk("KODEKEPANJANGAN", "Nama", "Kategori", 1000, 1, 1)));
+            assertFalse(repository.simpan(new Produk("P001", "N".repeat(301), "Kategori", 1000, 1, 1)));
+            assertFalse(repository.simpan(null));
+            assertEquals(0, repository.jumlahProduk());
+        }
+    }
+}
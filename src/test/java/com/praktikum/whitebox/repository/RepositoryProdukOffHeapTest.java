@@ -0,0 +1,120 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Repository Produk Off-Heap")
+class RepositoryProdukOffHeapTest {
+    private RepositoryProdukOffHeap repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryProdukOffHeap();
+        repository.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        repository.simpan(new Produk("P002", "Laptop Kantor", "Elektronik", 8000000, 3, 5));
+        repository.simpan(new Produk("P003", "Kaos Polos", "Fashion", 50000, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Simpan, cari dan query dibaca dari rekaman di luar heap")
+    void testSimpanDanCari() {
+        Produk produk = repository.cariByKode("P001").get();
+        assertEquals("Laptop Gaming", produk.getNama());
+        assertEquals(15000000, produk.getHarga(), 0.001);
+        assertTrue(repository.cariByKode("P999").isEmpty());
+        assertTrue(repository.cariByKode(null).isEmpty());
+
+        assertEquals(2, repository.cariByNama("laptop").size());
+        assertEquals(2, repository.cariByKategori("Elektronik").size());
+        assertEquals(1, repository.cariProdukStokMenipis().size());
+        assertEquals(1, repository.cariProdukStokHabis().size());
+        assertEquals(13, repository.hitungTotalStok());
+    }
+
+    @Test
+    @DisplayName("Produk yang dikembalikan adalah salinan")
+    void testSalinan() {
+        repository.cariByKode("P001").get().setStok(99);
+        assertEquals(10, repository.cariByKode("P001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Slot yang dihapus dipakai ulang dan indeks tetap benar setelah diperbesar")
+    void testHapusDanPakaiUlangSlot() {
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(repository.simpan(new Produk("X" + i, "Barang " + i, "Umum", 1000, 1, 0)));
+        }
+        long ukuran = repository.ukuranOffHeap();
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(repository.hapus("X" + i));
+        }
+        assertFalse(repository.hapus("X0"));
+        for (int i = 0; i < 2500; i++) {
+            repository.simpan(new Produk("Y" + i, "Baru " + i, "Umum", 1000, 2, 0));
+        }
+
+        assertEquals(ukuran, repository.ukuranOffHeap());
+        assertEquals(5003, repository.jumlahProduk());
+        for (int i = 1; i < 5000; i += 2) {
+            assertTrue(repository.cariByKode("X" + i).isPresent());
+        }
+        assertTrue(repository.cariByKode("X4").isEmpty());
+        assertEquals(2, repository.cariByKode("Y2499").get().getStok());
+        assertEquals(5003, repository.cariSemua().size());
+    }
+
+    @Test
+    @DisplayName("Operasi stok atomik dan produk yang tidak muat ditolak")
+    void testOperasiStok() {
+        assertTrue(repository.kurangiStokJikaCukup("P001", 4));
+        assertFalse(repository.kurangiStokJikaCukup("P001", 7));
+        assertTrue(repository.tambahStok("P003", 5));
+        assertFalse(repository.tambahStok("P003", Integer.MAX_VALUE));
+        assertTrue(repository.updateAktif("P002", false));
+        assertFalse(repository.kurangiStokJikaCukup("P002", 1));
+
+        assertEquals(11, repository.hitungTotalStok());
+        assertEquals(15000000.0 * 6 + 50000.0 * 5, repository.hitungTotalNilai(), 0.001);
+        assertFalse(repository.simpan(new Produk("KODE-TERLALU-PANJANG", "A", "B", 1, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("Pengurangan stok paralel tidak pernah oversell")
+    void testKurangiStokParalel() throws InterruptedException {
+        repository.updateStok("P001", 500);
+        AtomicInteger berhasil = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (repository.kurangiStokJikaCukup("P001", 1)) {
+                    berhasil.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, berhasil.get());
+        assertEquals(0, repository.cariByKode("P001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Cari banyak kode sekaligus melewati kode yang tidak ada")
+    void testCariByKodeBanyak() {
+        Map<String, Produk> hasil = repository.cariByKodeBanyak(Arrays.asList("P003", "P999", "P001", "P003", null));
+
+        assertEquals(Arrays.asList("P003", "P001"), Arrays.asList(hasil.keySet().toArray()));
+        assertEquals("Kaos Polos", hasil.get("P003").getNama());
+    }
+}
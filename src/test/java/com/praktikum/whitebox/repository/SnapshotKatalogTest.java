@@ -0,0 +1,155 @@
+package com.praktikum.whitebox.repository;
+
+import com.praktikum.whitebox.model.Kategori;
+import com.praktikum.whitebox.model.Produk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Snapshot Biner Katalog")
+class SnapshotKatalogTest {
+
+    @Test
+    @DisplayName("Snapshot yang ditulis dibaca kembali dengan isi yang sama")
+    void testTulisDanBacaKembali(@TempDir Path folder) throws IOException {
+        RepositoryProdukInMemory asal = new RepositoryProdukInMemory();
+        asal.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        asal.simpan(new Produk("P002", "Kaos Polos ñ", "Fashion", 50000.5, 0, 10));
+        Produk nonaktif = new Produk("P003", "Mouse Wireless", "Elektronik", 150000, 200000, 1);
+        nonaktif.setAktif(false);
+        asal.simpan(nonaktif);
+        Path file = folder.resolve("katalog.snap");
+
+        assertEquals(3, PenulisSnapshot.tulis(file, asal));
+
+        RepositoryProdukInMemory tujuan = new RepositoryProdukInMemory();
+        assertEquals(3, PembacaSnapshot.muat(file, tujuan));
+        for (Produk produk : asal.cariSemua()) {
+            Produk dimuat = tujuan.cariByKode(produk.getKode()).get();
+            assertEquals(produk.getNama(), dimuat.getNama());
+            assertEquals(produk.getKategori(), dimuat.getKategori());
+            assertEquals(produk.getHarga(), dimuat.getHarga(), 0.0);
+            assertEquals(produk.getStok(), dimuat.getStok());
+            assertEquals(produk.getStokMinimum(), dimuat.getStokMinimum());
+            assertEquals(produk.isAktif(), dimuat.isAktif());
+        }
+    }
+
+    @Test
+    @DisplayName("Kategori ditulis sekali di kamus dan dipakai bersama oleh produk")
+    void testKamusKategori(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("katalog.snap");
+        try (PenulisSnapshot penulis = new PenulisSnapshot(file)) {
+            penulis.tulisKategori(new Kategori("KAT01", "Elektronik", "Barang elektronik"));
+            penulis.tulisProduk(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+            penulis.tulisProduk(new Produk("P002", "Mouse Wireless", "Elektronik", 150000, 20, 5));
+            penulis.tulisProduk(new Produk("P003", "Kaos Polos", "Fashion", 50000, 0, 10));
+            penulis.selesai();
+        }
+
+        try (PembacaSnapshot pembaca = new PembacaSnapshot(file)) {
+            Produk pertama = pembaca.bacaProduk();
+            Produk kedua = pembaca.bacaProduk();
+            Produk ketiga = pembaca.bacaProduk();
+            assertNull(pembaca.bacaProduk());
+            assertSame(pertama.getKategori(), kedua.getKategori());
+            assertEquals("Fashion", ketiga.getKategori());
+
+            List<Kategori> daftar = pembaca.getDaftarKategori();
+            assertEquals(2, daftar.size());
+            assertEquals("KAT01", daftar.get(0).getIdKategori());
+            assertEquals("Barang elektronik", daftar.get(0).getDeskripsi());
+            assertNull(daftar.get(1).getIdKategori());
+            assertEquals(3, pembaca.getJumlahProduk());
+        }
+    }
+
+    @Test
+    @DisplayName("File terpotong atau bukan snapshot ditolak")
+    void testFileRusak(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("katalog.snap");
+        try (PenulisSnapshot penulis = new PenulisSnapshot(file)) {
+            penulis.tulisProduk(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+            penulis.selesai();
+        }
+        byte[] isi = Files.readAllBytes(file);
+        Path terpotong = folder.resolve("terpotong.snap");
+        Files.write(terpotong, Arrays.copyOf(isi, isi.length - 2));
+        Path bukanSnapshot = folder.resolve("lain.snap");
+        Files.writeString(bukanSnapshot, "kode,nama\n");
+
+        assertThrows(IOException.class, () -> PembacaSnapshot.muat(terpotong, new RepositoryProdukInMemory()));
+        assertThrows(IOException.class, () -> new PembacaSnapshot(bukanSnapshot));
+    }
+
+    @Test
+    @DisplayName("Penulisan yang tidak diselesaikan tidak menimpa snapshot lama")
+    void testPenulisanGagalTidakMenimpa(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("katalog.snap");
+        RepositoryProdukInMemory asal = new RepositoryProdukInMemory();
+        asal.simpan(new Produk("P001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        PenulisSnapshot.tulis(file, asal);
+
+        try (PenulisSnapshot penulis = new PenulisSnapshot(file)) {
+            penulis.tulisProduk(new Produk("P002", "Kaos Polos", "Fashion", 50000, 0, 10));
+        }
+
+        RepositoryProdukInMemory tujuan = new RepositoryProdukInMemory();
+        assertEquals(1, PembacaSnapshot.muat(file, tujuan));
+        assertTrue(tujuan.cariByKode("P001").isPresent());
+        try (var isiFolder = Files.list(folder)) {
+            assertEquals(1, isiFolder.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot terpotong tidak dimuat sebagian ke repository")
+    void testMuatTerpotongTidakSebagian(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("katalog.snap");
+        RepositoryProdukInMemory asal = new RepositoryProdukInMemory();
+        for (int i = 0; i < 50; i++) {
+            asal.simpan(new Produk("P" + i, "Barang " + i, "Umum", 1000, i, 1));
+        }
+        PenulisSnapshot.tulis(file, asal);
+        byte[] isi = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(isi, isi.length - 2));
+
+        RepositoryProdukInMemory tujuan = new RepositoryProdukInMemory();
+        assertThrows(IOException.class, () -> PembacaSnapshot.muat(file, tujuan));
+        assertEquals(0, tujuan.jumlahProduk());
+    }
+
+    @Test
+    @DisplayName("Snapshot besar dimuat per batch, bukan sekaligus")
+    void testMuatPerBatch(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("katalog.snap");
+        try (PenulisSnapshot penulis = new PenulisSnapshot(file)) {
+            for (int i = 0; i < 25_000; i++) {
+                penulis.tulisProduk(new Produk("P" + i, "Barang " + i, "Umum", 1000, 1, 1));
+            }
+            penulis.selesai();
+        }
+        List<Integer> ukuranBatch = new ArrayList<>();
+        RepositoryProdukInMemory tujuan = new RepositoryProdukInMemory() {
+            @Override
+            public int simpanSemua(Collection<Produk> daftarProduk) {
+                ukuranBatch.add(daftarProduk.size());
+                return super.simpanSemua(daftarProduk);
+            }
+        };
+
+        assertEquals(25_000, PembacaSnapshot.muat(file, tujuan));
+        assertEquals(Arrays.asList(10_000, 10_000, 5_000), ukuranBatch);
+        assertEquals(25_000, tujuan.jumlahProduk());
+    }
+}
@@ -0,0 +1,81 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.TipePelanggan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Aturan Diskon - kompilasi dan muat konfigurasi")
+class AturanDiskonTest {
+
+    @Test
+    @DisplayName("Binary search tier memilih ambang terakhir yang <= kuantitas")
+    void testBinarySearchTier() {
+        // Ambang besar memaksa jalur binary search (tanpa tabel)
+        AturanDiskon aturan = new AturanDiskon(
+                new int[]{10, 1000, 100000},
+                new double[]{0.01, 0.05, 0.10},
+                new double[]{0.0, 0.0, 0.0},
+                0.50);
+
+        assertEquals(0.0, aturan.persenDiskon(9, TipePelanggan.UMUM), 0.0001);
+        assertEquals(0.01, aturan.persenDiskon(10, TipePelanggan.UMUM), 0.0001);
+        assertEquals(0.05, aturan.persenDiskon(99999, TipePelanggan.UMUM), 0.0001);
+        assertEquals(0.10, aturan.persenDiskon(5000000, TipePelanggan.UMUM), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Muat aturan dari file properties")
+    void testMuatDariFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("aturan-diskon.properties");
+        Files.writeString(file, String.join("\n",
+                "tier.ambang=2, 20",
+                "tier.diskon=0.10, 0.25",
+                "pelanggan.PREMIUM=0.15",
+                "diskon.maksimal=0.35"));
+
+        AturanDiskon aturan = AturanDiskon.muat(file);
+
+        assertEquals(0.25, aturan.persenDiskon(2, TipePelanggan.PREMIUM), 0.0001);
+        assertEquals(0.35, aturan.persenDiskon(20, TipePelanggan.PREMIUM), 0.0001);
+        assertEquals(0.10, aturan.persenDiskon(2, TipePelanggan.REGULER), 0.0001);
+        assertEquals(0.0, aturan.persenDiskon(1, TipePelanggan.UMUM), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Konfigurasi tidak valid ditolak")
+    void testKonfigurasiTidakValid() {
+        Properties tidakLengkap = new Properties();
+        tidakLengkap.setProperty("tier.ambang", "5,10");
+        assertThrows(IllegalArgumentException.class, () -> AturanDiskon.dariProperties(tidakLengkap));
+
+        Properties tidakUrut = new Properties();
+        tidakUrut.setProperty("tier.ambang", "10,5");
+        tidakUrut.setProperty("tier.diskon", "0.1,0.2");
+        tidakUrut.setProperty("diskon.maksimal", "0.3");
+        assertThrows(IllegalArgumentException.class, () -> AturanDiskon.dariProperties(tidakUrut));
+
+        tidakUrut.setProperty("tier.ambang", "5,abc");
+        assertThrows(IllegalArgumentException.class, () -> AturanDiskon.dariProperties(tidakUrut));
+    }
+
+    @Test
+    @DisplayName("Ganti aturan di kalkulator saat runtime")
+    void testGantiAturanKalkulator() {
+        KalkulatorDiskon kalkulator = new KalkulatorDiskon();
+        assertEquals(150, kalkulator.hitungDiskon(100, 10, TipePelanggan.REGULER), 0.001);
+
+        kalkulator.gantiAturan(new AturanDiskon(
+                new int[]{10}, new double[]{0.20}, new double[]{0.0, 0.0, 0.0}, 0.30));
+
+        assertEquals(200, kalkulator.hitungDiskon(100, 10, TipePelanggan.REGULER), 0.001);
+        assertThrows(NullPointerException.class, () -> kalkulator.gantiAturan(null));
+    }
+}
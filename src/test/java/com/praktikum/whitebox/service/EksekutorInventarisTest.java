@@ -0,0 +1,105 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import com.praktikum.whitebox.service.EksekutorInventaris.JenisOperasi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Eksekutor Inventaris")
+class EksekutorInventarisTest {
+    private RepositoryProdukInMemory repository;
+    private EksekutorInventaris eksekutor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryProdukInMemory();
+        repository.simpan(new Produk("PROD001", "Laptop Gaming", "Elektronik", 1000, 10, 5));
+        Map<JenisOperasi, Integer> batas = new EnumMap<>(JenisOperasi.class);
+        batas.put(JenisOperasi.BACA, 4);
+        batas.put(JenisOperasi.MUTASI, 1);
+        batas.put(JenisOperasi.LAPORAN, 1);
+        eksekutor = new EksekutorInventaris(new ServiceInventaris(repository), batas, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eksekutor.close();
+    }
+
+    @Test
+    @DisplayName("Panggilan service dijalankan dan hasilnya dikembalikan lewat future")
+    void testJalankan() throws Exception {
+        assertTrue(eksekutor.keluarStok("PROD001", 3).get());
+        assertEquals(7, eksekutor.cariProdukByKode("PROD001").get().get().getStok());
+        assertEquals(7000.0, eksekutor.hitungTotalNilaiInventaris().get(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Antre izin lewat batas waktu gagal dengan timeout dan tidak dijalankan")
+    void testTimeoutDanPembatalan() throws Exception {
+        CountDownLatch mulai = new CountDownLatch(1);
+        CountDownLatch lepas = new CountDownLatch(1);
+        CompletableFuture<Boolean> tahan = eksekutor.jalankan(JenisOperasi.MUTASI, s -> {
+            mulai.countDown();
+            try {
+                lepas.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return true;
+        });
+        // Pastikan izin satu-satunya sudah dipegang sebelum operasi berikutnya antre
+        mulai.await();
+
+        CompletableFuture<Boolean> antre = eksekutor.jalankan(JenisOperasi.MUTASI, Duration.ofMillis(100),
+                s -> s.masukStok("PROD001", 1));
+        ExecutionException error = assertThrows(ExecutionException.class, antre::get);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+
+        CompletableFuture<Boolean> dibatalkan = eksekutor.jalankan(JenisOperasi.MUTASI,
+                s -> s.masukStok("PROD001", 100));
+        dibatalkan.cancel(true);
+
+        lepas.countDown();
+        assertTrue(tahan.get());
+        eksekutor.close();
+        assertEquals(10, repository.cariByKode("PROD001").get().getStok());
+        assertEquals(1, eksekutor.izinTersedia(JenisOperasi.MUTASI));
+    }
+
+    @Test
+    @DisplayName("Error dari operasi menyelesaikan future dan melepas izin")
+    void testOperasiMelemparError() throws Exception {
+        CompletableFuture<Boolean> gagal = eksekutor.jalankan(JenisOperasi.MUTASI, s -> {
+            throw new StackOverflowError();
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> gagal.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        assertTrue(eksekutor.jalankan(JenisOperasi.MUTASI, s -> s.masukStok("PROD001", 1)).get());
+    }
+
+    @Test
+    @DisplayName("Batas izin wajib diisi untuk setiap jenis operasi")
+    void testBatasTidakValid() {
+        Map<JenisOperasi, Integer> batas = new EnumMap<>(JenisOperasi.class);
+        batas.put(JenisOperasi.BACA, 1);
+        assertThrows(IllegalArgumentException.class, () -> new EksekutorInventaris(
+                new ServiceInventaris(repository), batas, Duration.ofSeconds(1)));
+    }
+}
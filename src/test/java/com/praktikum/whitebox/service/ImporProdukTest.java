@@ -0,0 +1,105 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Impor Produk dari CSV")
+class ImporProdukTest {
+    private RepositoryProdukInMemory repository;
+    private ImporProduk impor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryProdukInMemory();
+        repository.simpan(new Produk("PROD001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        // Batch kecil supaya beberapa batch ikut diuji
+        impor = new ImporProduk(repository, ForkJoinPool.commonPool(), 2);
+    }
+
+    @Test
+    @DisplayName("Baris valid disimpan, baris lain ditolak dengan nomor baris dan alasan")
+    void testImporDanBarisDitolak() throws Exception {
+        String csv = "kode,nama,kategori,harga,stok,stokMinimum\n"
+                + "PROD002,Mouse Wireless,Elektronik,150000,20,5\n"
+                + "PROD001,Laptop Baru,Elektronik,9000000,1,1\n"
+                + "\n"
+                + "PROD003,Kaos Polos,Fashion,abc,1,1\n"
+                + "PROD002,Mouse Lagi,Elektronik,100000,1,1\n"
+                + "PROD004,Topi,Fashion\n"
+                + "PROD005,Keyboard Mekanik,Elektronik,500000,3,1\n";
+
+        ImporProduk.HasilImpor hasil = impor.impor(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(2, hasil.getJumlahBerhasil());
+        assertEquals(4, hasil.getJumlahDitolak());
+        List<ImporProduk.BarisDitolak> ditolak = hasil.getDitolak();
+        assertEquals(3, ditolak.get(0).getNomorBaris());
+        assertEquals("Kode sudah ada di repository", ditolak.get(0).getAlasan());
+        assertEquals(5, ditolak.get(1).getNomorBaris());
+        // Dalam satu batch, baris yang gagal diurai dilaporkan sebelum hasil cek repository
+        assertEquals(7, ditolak.get(2).getNomorBaris());
+        // Duplikat dari batch sebelumnya tertangkap karena batch itu sudah tersimpan
+        assertEquals(6, ditolak.get(3).getNomorBaris());
+        assertEquals("Kode sudah ada di repository", ditolak.get(3).getAlasan());
+
+        assertEquals("Laptop Gaming", repository.cariByKode("PROD001").get().getNama());
+        assertEquals(20, repository.cariByKode("PROD002").get().getStok());
+        assertTrue(repository.cariByKode("PROD005").isPresent());
+    }
+
+    @Test
+    @DisplayName("Impor dari file membaca semua baris")
+    void testImporDariFile(@TempDir Path folder) throws Exception {
+        Path file = folder.resolve("katalog.csv");
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append("BRG").append(i).append(",Barang ").append(i).append(",Umum,1000,5,1\n");
+        }
+        Files.writeString(file, csv);
+
+        ImporProduk.HasilImpor hasil = new ImporProduk(repository).impor(file);
+
+        assertEquals(100, hasil.getJumlahBerhasil());
+        assertEquals(0, hasil.getJumlahDitolak());
+        assertEquals(101, repository.jumlahProduk());
+    }
+
+    @Test
+    @DisplayName("Duplikat di dalam batch dan baris yang ditolak repository dilaporkan per baris")
+    void testDuplikatDanPenolakanRepository() throws Exception {
+        RepositoryProdukInMemory menolak = new RepositoryProdukInMemory() {
+            @Override
+            public boolean simpan(Produk produk) {
+                return !produk.getKode().equals("PROD009") && super.simpan(produk);
+            }
+        };
+        String csv = "PROD007,Mouse Wireless,Elektronik,150000,20,5\n"
+                + "PROD007,Mouse Lagi,Elektronik,100000,1,1\n"
+                + "PROD009,Keyboard Mekanik,Elektronik,500000,3,1\n"
+                + "PROD010,Topi,Fashion,25000,8,2\n";
+
+        ImporProduk.HasilImpor hasil = new ImporProduk(menolak, ForkJoinPool.commonPool(), 10)
+                .impor(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(2, hasil.getJumlahBerhasil());
+        assertEquals(2, hasil.getJumlahDitolak());
+        List<ImporProduk.BarisDitolak> ditolak = hasil.getDitolak();
+        assertEquals(2, ditolak.get(0).getNomorBaris());
+        assertEquals("Kode duplikat di file", ditolak.get(0).getAlasan());
+        assertEquals(3, ditolak.get(1).getNomorBaris());
+        assertEquals("Ditolak repository saat disimpan", ditolak.get(1).getAlasan());
+    }
+}
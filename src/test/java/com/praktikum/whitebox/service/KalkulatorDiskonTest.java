@@ -1,5 +1,6 @@
 package com.praktikum.whitebox.service;
 
+import com.praktikum.whitebox.model.TipePelanggan;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -111,4 +112,42 @@ public class KalkulatorDiskonTest {
                 "BARU");
         assertTrue(diskon100 > diskon99);
     }
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Test tabel diskon - sama dengan aturan tier untuk semua kuantitas")
+    void testTabelDiskonSesuaiAturanTier() {
+        double harga = 1000;
+        for (TipePelanggan tipe : TipePelanggan.values()) {
+            for (int kuantitas = 1; kuantitas <= 150; kuantitas++) {
+                double tier = kuantitas >= 100 ? 0.20 : kuantitas >= 50 ? 0.15
+                        : kuantitas >= 10 ? 0.10 : kuantitas >= 5 ? 0.05 : 0.0;
+                double expected = harga * kuantitas * Math.min(tier + tipe.getBonusDiskon(), 0.30);
+                assertEquals(expected, kalkulatorDiskon.hitungDiskon(harga, kuantitas, tipe), 0.0001);
+                assertEquals(expected, kalkulatorDiskon.hitungDiskon(harga, kuantitas, tipe.name().toLowerCase()), 0.0001);
+            }
+        }
+    }
+    @Test
+    @DisplayName("Test hitung diskon bulk dengan array primitif")
+    void testHitungDiskonBulk() {
+        double[] harga = {1000, 1000, 1000};
+        int[] kuantitas = {1, 10, 200};
+        TipePelanggan[] tipe = {TipePelanggan.UMUM, TipePelanggan.REGULER, null};
+        double[] out = new double[3];
+
+        kalkulatorDiskon.hitungDiskon(harga, kuantitas, tipe, out);
+
+        assertArrayEquals(new double[]{20, 1500, 44000}, out, 0.001);
+        assertThrows(IllegalArgumentException.class, () ->
+                kalkulatorDiskon.hitungDiskon(harga, new int[]{1, 2}, tipe, out));
+        assertThrows(IllegalArgumentException.class, () ->
+                kalkulatorDiskon.hitungDiskon(harga, new int[]{1, 0, 3}, tipe, out));
+    }
+    @Test
+    @DisplayName("Test TipePelanggan.dari - tidak peka huruf besar/kecil, default UMUM")
+    void testTipePelangganDari() {
+        assertEquals(TipePelanggan.PREMIUM, TipePelanggan.dari("premium"));
+        assertEquals(TipePelanggan.REGULER, TipePelanggan.dari("Reguler"));
+        assertEquals(TipePelanggan.UMUM, TipePelanggan.dari("BARU"));
+        assertEquals(TipePelanggan.UMUM, TipePelanggan.dari(null));
+    }
+}
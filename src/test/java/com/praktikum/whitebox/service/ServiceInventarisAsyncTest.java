@@ -0,0 +1,198 @@
+package com.praktikum.whitebox.service;
+
+import com.praktikum.whitebox.model.ModePencarian;
+import com.praktikum.whitebox.model.MutasiStok;
+import com.praktikum.whitebox.model.Produk;
+import com.praktikum.whitebox.model.Reservasi;
+import com.praktikum.whitebox.repository.AliranPeristiwa;
+import com.praktikum.whitebox.repository.RepositoryProduk;
+import com.praktikum.whitebox.repository.RepositoryProdukAsyncAdapter;
+import com.praktikum.whitebox.repository.RepositoryProdukCdc;
+import com.praktikum.whitebox.repository.RepositoryProdukInMemory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Service Inventaris Async")
+class ServiceInventarisAsyncTest {
+    private RepositoryProdukInMemory repository;
+    private ExecutorService executor;
+    private ServiceInventarisAsync service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RepositoryProdukInMemory();
+        repository.simpan(new Produk("PROD001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+        repository.simpan(new Produk("PROD002", "Mouse Wireless", "Elektronik", 150000, 0, 1));
+        executor = Executors.newFixedThreadPool(4);
+        service = new ServiceInventarisAsync(new RepositoryProdukAsyncAdapter(repository, executor));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Mutasi stok dan validasi input lewat future")
+    void testMutasiStok() {
+        assertTrue(service.keluarStok("PROD001", 4).join());
+        assertFalse(service.keluarStok("PROD001", 100).join());
+        assertTrue(service.masukStok("PROD002", 2).join());
+        assertFalse(service.masukStok("#", 2).join());
+        assertTrue(service.updateStok("PROD001", 1).join());
+        assertFalse(service.updateStok("PROD999", 1).join());
+
+        assertEquals(1, repository.cariByKode("PROD001").get().getStok());
+        assertEquals(3, service.hitungTotalStok().join());
+    }
+
+    @Test
+    @DisplayName("Tambah dan hapus produk dirangkai tanpa blocking")
+    void testTambahDanHapus() {
+        Produk baru = new Produk("PROD003", "Keyboard Mekanik", "Elektronik", 500000, 0, 1);
+        assertTrue(service.tambahProduk(baru).join());
+        assertFalse(service.tambahProduk(baru).join());
+
+        assertFalse(service.hapusProduk("PROD001").join());
+        assertTrue(service.hapusProduk("PROD003").join());
+        assertFalse(service.cariProdukByKode("PROD003").join().isPresent());
+    }
+
+    @Test
+    @DisplayName("Pencarian banyak kode mengembalikan produk yang ditemukan saja")
+    void testCariProdukByKodeBanyak() {
+        Map<String, Produk> hasil = service.cariProdukByKodeBanyak(
+                Arrays.asList("PROD001", "PROD002", "PROD999", "#", "PROD001")).join();
+
+        assertEquals(2, hasil.size());
+        assertEquals("Laptop Gaming", hasil.get("PROD001").getNama());
+        assertTrue(service.cariProdukByKodeBanyak(null).join().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Repository tanpa pencarian batch dicari per kode secara bersamaan")
+    void testCariBanyakBersamaanTanpaBatch() {
+        CyclicBarrier semuaMasuk = new CyclicBarrier(2);
+        RepositoryProdukInMemory lambat = new RepositoryProdukInMemory() {
+            @Override
+            public Optional<Produk> cariByKode(String kode) {
+                // Hanya lolos kalau dua pencarian berjalan pada saat yang sama
+                try {
+                    semuaMasuk.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.cariByKode(kode);
+            }
+        };
+        lambat.simpan(new Produk("PROD001", "Laptop Gaming", "Elektronik", 15000000, 10, 5));
+
+        // Decorator yang hanya meneruskan tidak membuat repository-nya menjadi batch
+        for (RepositoryProduk repositoryLambat : Arrays.asList(
+                lambat, new RepositoryProdukCdc(lambat, new AliranPeristiwa(64)))) {
+            ServiceInventarisAsync serviceLambat = new ServiceInventarisAsync(
+                    new RepositoryProdukAsyncAdapter(repositoryLambat, executor));
+
+            Map<String, Produk> hasil = serviceLambat.cariProdukByKodeBanyak(
+                    Arrays.asList("PROD001", "PROD999")).join();
+
+            assertEquals(1, hasil.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Batch semua-atau-tidak membalik kode yang sudah berhasil")
+    void testProsesBatchSemuaAtauTidak() {
+        boolean[] hasil = service.prosesBatch(Arrays.asList(
+                MutasiStok.keluar("PROD001", 3),
+                MutasiStok.masuk("PROD002", 5),
+                MutasiStok.keluar("PROD002", 10)), true).join();
+
+        assertArrayEquals(new boolean[3], hasil);
+        assertEquals(10, repository.cariByKode("PROD001").get().getStok());
+        assertEquals(0, repository.cariByKode("PROD002").get().getStok());
+
+        hasil = service.prosesBatch(Arrays.asList(
+                MutasiStok.keluar("PROD001", 3),
+                MutasiStok.keluar("PROD002", 1),
+                null)).join();
+
+        assertArrayEquals(new boolean[]{true, false, false}, hasil);
+        assertEquals(7, repository.cariByKode("PROD001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Reservasi mengurangi stok semua baris atau tidak sama sekali")
+    void testReservasi() {
+        Map<String, Integer> gagal = new HashMap<>();
+        gagal.put("PROD001", 2);
+        gagal.put("PROD002", 1);
+        assertFalse(service.reservasiPesanan(gagal).join().isPresent());
+        assertEquals(10, repository.cariByKode("PROD001").get().getStok());
+
+        Reservasi reservasi = service.reservasiPesanan(Map.of("PROD001", 4)).join().get();
+        assertEquals(6, repository.cariByKode("PROD001").get().getStok());
+        assertEquals(1, service.jumlahReservasiAktif());
+        assertTrue(service.updateStok("PROD001", 0).join());
+        assertFalse(service.hapusProduk("PROD001").join());
+
+        assertTrue(service.batalkanReservasi(reservasi.getId()).join());
+        assertFalse(service.batalkanReservasi(reservasi.getId()).join());
+        assertEquals(4, repository.cariByKode("PROD001").get().getStok());
+        assertFalse(service.konfirmasiReservasi(reservasi.getId()).join());
+    }
+
+    @Test
+    @DisplayName("Reservasi kedaluwarsa dilepas dan tidak bisa dikonfirmasi")
+    void testReservasiKedaluwarsa() {
+        Instant awal = Instant.parse("2024-01-01T10:00:00Z");
+        service.setJam(Clock.fixed(awal, ZoneOffset.UTC));
+        Reservasi pertama = service.reservasiPesanan(Map.of("PROD001", 2), Duration.ofMinutes(10)).join().get();
+        Reservasi kedua = service.reservasiPesanan(Map.of("PROD001", 3), Duration.ofMinutes(30)).join().get();
+        Reservasi ketiga = service.reservasiPesanan(Map.of("PROD001", 1), Duration.ofMinutes(5)).join().get();
+
+        service.setJam(Clock.fixed(awal.plus(Duration.ofMinutes(20)), ZoneOffset.UTC));
+        assertFalse(service.konfirmasiReservasi(ketiga.getId()).join());
+        assertEquals(1, service.lepaskanReservasiKedaluwarsa().join());
+        assertTrue(service.konfirmasiReservasi(kedua.getId()).join());
+        assertFalse(service.batalkanReservasi(pertama.getId()).join());
+
+        assertEquals(0, service.jumlahReservasiAktif());
+        assertEquals(7, repository.cariByKode("PROD001").get().getStok());
+    }
+
+    @Test
+    @DisplayName("Status aktif, stok minimum, pencarian halaman dan paging kode")
+    void testOperasiLain() {
+        assertTrue(service.ubahStatusAktif("PROD002", false).join());
+        assertFalse(repository.cariByKode("PROD002").get().isAktif());
+        assertFalse(service.ubahStatusAktif("#", true).join());
+
+        assertTrue(service.updateStokMinimum("PROD001", 8).join());
+        assertEquals(8, repository.cariByKode("PROD001").get().getStokMinimum());
+        assertFalse(service.updateStokMinimum("PROD001", -1).join());
+
+        assertEquals(1, service.cariProdukByNama("lap", ModePencarian.AWALAN, 0, 10).join().size());
+        assertTrue(service.cariProdukByNama(" ", ModePencarian.AWALAN, 0, 10).join().isEmpty());
+
+        assertEquals("PROD002", service.getProdukSetelah("PROD001", 5).join().get(0).getKode());
+        assertTrue(service.getProdukSetelah(null, 0).join().isEmpty());
+    }
+}
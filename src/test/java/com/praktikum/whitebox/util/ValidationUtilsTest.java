@@ -27,6 +27,18 @@ class ValidationUtilsTest {
         assertFalse(ValidationUtils.isValidKodeProduk("@@@"));      // karakter tidak valid
     }
 
+    @Test
+    @DisplayName("Kode produk dengan spasi di awal/akhir dan karakter non-ASCII")
+    void testIsValidKodeProduk_SpasiDanNonAscii() {
+        assertTrue(ValidationUtils.isValidKodeProduk("  P001 "));
+        assertTrue(ValidationUtils.isValidKodeProduk("\tABCDEFGHIJ\n"));
+        assertFalse(ValidationUtils.isValidKodeProduk("   "));
+        assertFalse(ValidationUtils.isValidKodeProduk(" P0 "));
+        assertFalse(ValidationUtils.isValidKodeProduk("P 01"));
+        assertFalse(ValidationUtils.isValidKodeProduk("PRÖD1"));
+        assertFalse(ValidationUtils.isValidKodeProduk("P١٢٣"));
+    }
+
     // ======= isValidNama =======
     @Test
     @DisplayName("Valid nama")